@@ -0,0 +1,217 @@
+package application;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Minimal average-time benchmark harness for the till's hot paths.
+ * Runs each benchmark for a number of timed warmup and measurement iterations on
+ * the calling thread, and records the time and the bytes allocated per operation.
+ * Results are written in the JSON layout of JMH's {@code -rf json}, so the usual
+ * JMH result viewers and comparison scripts can read them.
+ *
+ * @author Musab
+ */
+final class BenchmarkRunner {
+
+    /** Two-sided 99.9% normal quantile, used for the score error like JMH's confidence interval. */
+    private static final double Z_999 = 3.291;
+
+    /**
+     * One benchmarked operation.
+     */
+    @FunctionalInterface
+    interface Benchmark {
+
+        /**
+         * Runs the operation once.
+         *
+         * @return a value derived from the work, consumed so it cannot be optimized away
+         * @throws Exception if the operation fails; the run is aborted
+         */
+        Object run() throws Exception;
+    }
+
+    /**
+     * Result of one benchmark.
+     *
+     * @param name fully qualified benchmark name
+     * @param opsPerInvocation operations performed by one call, e.g. rows mapped
+     * @param nanosPerOp average time per operation of each measurement iteration
+     * @param bytesPerOp bytes allocated per operation over all measurement iterations
+     */
+    record Result(String name, int opsPerInvocation, double[] nanosPerOp, double bytesPerOp) {
+
+        double score() {
+            double sum = 0;
+            for (double v : nanosPerOp) {
+                sum += v;
+            }
+            return sum / nanosPerOp.length;
+        }
+
+        double error() {
+            if (nanosPerOp.length < 2) {
+                return Double.NaN;
+            }
+            double mean = score();
+            double squares = 0;
+            for (double v : nanosPerOp) {
+                squares += (v - mean) * (v - mean);
+            }
+            return Z_999 * Math.sqrt(squares / (nanosPerOp.length - 1)) / Math.sqrt(nanosPerOp.length);
+        }
+    }
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationMillis;
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final List<Result> results = new ArrayList<>();
+
+    /** Folds every benchmark's return value, so the JIT cannot drop the work. */
+    private volatile int sink;
+
+    BenchmarkRunner(int warmupIterations, int measurementIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationMillis = iterationMillis;
+    }
+
+    /**
+     * Runs a benchmark where one call is one operation.
+     */
+    Result run(String name, Benchmark benchmark) throws Exception {
+        return run(name, 1, benchmark);
+    }
+
+    /**
+     * Runs a benchmark and prints its result.
+     *
+     * @param name benchmark name
+     * @param opsPerInvocation operations performed by one call; scores are per operation
+     * @param benchmark the operation
+     * @return the result
+     * @throws Exception if the benchmark fails
+     */
+    Result run(String name, int opsPerInvocation, Benchmark benchmark) throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            iterate(benchmark);
+        }
+
+        double[] nanosPerOp = new double[measurementIterations];
+        long totalOps = 0;
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < measurementIterations; i++) {
+            long start = System.nanoTime();
+            long calls = iterate(benchmark);
+            long elapsed = System.nanoTime() - start;
+            nanosPerOp[i] = (double) elapsed / (calls * opsPerInvocation);
+            totalOps += calls * opsPerInvocation;
+        }
+        double bytesPerOp = (double) (threads.getCurrentThreadAllocatedBytes() - allocatedBefore) / totalOps;
+
+        Result result = new Result(name, opsPerInvocation, nanosPerOp, bytesPerOp);
+        results.add(result);
+        System.out.printf(Locale.ROOT, "%-50s %12.1f ± %8.1f ns/op %12.1f B/op%n",
+                name, result.score(), result.error(), bytesPerOp);
+        return result;
+    }
+
+    List<Result> getResults() {
+        return results;
+    }
+
+    /** Calls the benchmark until the iteration time is up and returns the number of calls. */
+    private long iterate(Benchmark benchmark) throws Exception {
+        long deadline = System.nanoTime() + iterationMillis * 1_000_000;
+        long calls = 0;
+        int folded = 0;
+        do {
+            // Check the clock every 16 calls so it does not dominate very short operations
+            for (int i = 0; i < 16; i++) {
+                Object value = benchmark.run();
+                folded += value == null ? 0 : value.hashCode();
+            }
+            calls += 16;
+        } while (System.nanoTime() < deadline);
+        sink += folded;
+        return calls;
+    }
+
+    /**
+     * Writes the results as a JMH-style JSON array.
+     *
+     * @param file the result file
+     * @throws IOException if writing fails
+     */
+    void writeJson(Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("[\n");
+            for (int i = 0; i < results.size(); i++) {
+                Result r = results.get(i);
+                out.write("    {\n");
+                field(out, "benchmark", quote(r.name()));
+                field(out, "mode", quote("avgt"));
+                field(out, "threads", "1");
+                field(out, "forks", "0");
+                field(out, "jvm", quote(ProcessHandle.current().info().command().orElse("")));
+                field(out, "jdkVersion", quote(System.getProperty("java.version")));
+                field(out, "vmName", quote(System.getProperty("java.vm.name")));
+                field(out, "vmVersion", quote(System.getProperty("java.vm.version")));
+                field(out, "warmupIterations", Integer.toString(warmupIterations));
+                field(out, "warmupTime", quote(iterationMillis + " ms"));
+                field(out, "measurementIterations", Integer.toString(measurementIterations));
+                field(out, "measurementTime", quote(iterationMillis + " ms"));
+                field(out, "opsPerInvocation", Integer.toString(r.opsPerInvocation()));
+                out.write("        \"primaryMetric\" : {\n");
+                out.write("            \"score\" : " + number(r.score()) + ",\n");
+                out.write("            \"scoreError\" : " + number(r.error()) + ",\n");
+                out.write("            \"scoreUnit\" : \"ns/op\",\n");
+                out.write("            \"rawData\" : [ [ ");
+                for (int j = 0; j < r.nanosPerOp().length; j++) {
+                    out.write((j > 0 ? ", " : "") + number(r.nanosPerOp()[j]));
+                }
+                out.write(" ] ]\n        },\n");
+                out.write("        \"secondaryMetrics\" : {\n");
+                out.write("            \"·gc.alloc.rate.norm\" : {\n");
+                out.write("                \"score\" : " + number(r.bytesPerOp()) + ",\n");
+                out.write("                \"scoreUnit\" : \"B/op\"\n");
+                out.write("            }\n        }\n");
+                out.write(i < results.size() - 1 ? "    },\n" : "    }\n");
+            }
+            out.write("]\n");
+        }
+    }
+
+    private static void field(Writer out, String name, String value) throws IOException {
+        out.write("        \"" + name + "\" : " + value + ",\n");
+    }
+
+    private static String number(double value) {
+        return Double.isFinite(value) ? String.format(Locale.ROOT, "%.3f", value) : "\"NaN\"";
+    }
+
+    private static String quote(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,208 @@
+package application;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmarks for the till's hot paths: mapping order rows, the daily report,
+ * cart add/undo, rendering an order and Ethiopian date conversion.
+ * The order mapping cases run {@link OrderRowMapper} and the earlier
+ * {@link LegacyOrderMapping} over the same day, with the menu cached and without;
+ * their B/op is bytes per row.
+ * <p>
+ * Build and run from the project directory with JDK 22 or newer:
+ * <pre>
+ * javac -d bin-bench -cp "lib/*" $(find src bench -name '*.java' ! -name module-info.java)
+ * java -cp "bin-bench:lib/*" application.HotPathBenchmarks [-wi 5] [-i 10] [-r 1000] [-rf jmh-result.json] [regex]
+ * </pre>
+ * {@code -wi} and {@code -i} set the warmup and measurement iterations, {@code -r} the
+ * milliseconds per iteration and {@code -rf} the JSON result file; a regex runs only
+ * the matching benchmarks. Keep the result files of each version to compare them.
+ *
+ * @author Musab
+ */
+public final class HotPathBenchmarks {
+
+    /** Orders in the simulated day, about a busy Saturday. */
+    private static final int ORDERS_PER_DAY = 400;
+
+    /** Labels of the OrderRowMapper select list; the mapper reads by index, the scan by label. */
+    private static final String[] ORDER_COLUMNS = {
+        "id", "timestamp", "taxed", "client_uuid", "menu_id", "name", "category", "price_santim", "quantity"
+    };
+
+    private static final String[] CATEGORIES = { "food", "juice", "Hot Drink", "Soft Drink" };
+
+    private HotPathBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int warmup = 5;
+        int iterations = 10;
+        long iterationMillis = 1_000;
+        Path resultFile = Path.of("jmh-result.json");
+        Pattern filter = Pattern.compile(".*");
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-wi" -> warmup = Integer.parseInt(args[++i]);
+                case "-i" -> iterations = Integer.parseInt(args[++i]);
+                case "-r" -> iterationMillis = Long.parseLong(args[++i]);
+                case "-rf" -> resultFile = Path.of(args[++i]);
+                default -> filter = Pattern.compile(".*" + args[i] + ".*");
+            }
+        }
+
+        BenchmarkRunner runner = new BenchmarkRunner(warmup, iterations, iterationMillis);
+        Fixture fixture = new Fixture(new Random(42));
+        String prefix = HotPathBenchmarks.class.getName() + ".";
+
+        for (Case c : cases(fixture)) {
+            String name = prefix + c.name();
+            if (filter.matcher(name).matches()) {
+                runner.run(name, c.opsPerInvocation(), c.benchmark());
+            }
+        }
+        runner.writeJson(resultFile);
+        System.out.println("Results written to " + resultFile.toAbsolutePath());
+    }
+
+    private static List<Case> cases(Fixture f) {
+        List<Case> cases = new ArrayList<>();
+        int rows = f.orderRows.size();
+
+        // Reading every column of the rows without mapping: the cost of the stand-in itself
+        cases.add(new Case("resultSetScanLegacy", rows, () -> {
+            ResultSet rs = InMemoryResultSet.of(LegacyOrderMapping.COLUMNS, f.legacyOrderRows);
+            long hash = 0;
+            while (rs.next()) {
+                hash += rs.getInt("id") + rs.getTimestamp("timestamp").getNanos()
+                        + (rs.getBoolean("taxed") ? 1 : 0) + rs.getInt("menu_id")
+                        + rs.getString("name").length() + rs.getString("category").length()
+                        + rs.getBigDecimal("price").scale() + rs.getInt("quantity");
+            }
+            return hash;
+        }));
+        cases.add(new Case("resultSetScan", rows, () -> {
+            ResultSet rs = InMemoryResultSet.of(ORDER_COLUMNS, f.orderRows);
+            long hash = 0;
+            while (rs.next()) {
+                hash += rs.getInt(1) + rs.getTimestamp(2).getNanos() + (rs.getBoolean(3) ? 1 : 0)
+                        + rs.getInt(4) + rs.getString(5).length() + rs.getString(6).length()
+                        + rs.getLong(7) + rs.getInt(8);
+            }
+            return hash;
+        }));
+        cases.add(new Case("orderMapLegacy", rows, () -> LegacyOrderMapping.mapOrders(
+                InMemoryResultSet.of(LegacyOrderMapping.COLUMNS, f.legacyOrderRows), f.catalog).size()));
+        cases.add(new Case("orderRowMapper", rows, () -> {
+            List<Order> orders = new ArrayList<>();
+            f.orderDAO.newRowMapper().mapInto(InMemoryResultSet.of(ORDER_COLUMNS, f.orderRows), orders);
+            return orders.size();
+        }));
+        // Menu not cached yet: items come from the rows
+        cases.add(new Case("orderMapLegacyUncached", rows, () -> LegacyOrderMapping.mapOrders(
+                InMemoryResultSet.of(LegacyOrderMapping.COLUMNS, f.legacyOrderRows), MenuCatalog.EMPTY).size()));
+        cases.add(new Case("orderRowMapperUncached", rows, () -> {
+            List<Order> orders = new ArrayList<>();
+            new OrderRowMapper(MenuCatalog.EMPTY).mapInto(InMemoryResultSet.of(ORDER_COLUMNS, f.orderRows), orders);
+            return orders.size();
+        }));
+
+        cases.add(new Case("reportAggregate", ORDERS_PER_DAY, () -> {
+            f.sales.reset(f.orders);
+            return f.sales.getTaxedTotal();
+        }));
+        cases.add(new Case("reportFormat", 1,
+                () -> SalesReportFormatter.format(f.range, f.sales, f.cash)));
+
+        cases.add(new Case("cartAddUndo", 2, () -> {
+            MenuItem item = f.menu.get((f.next++ & 63) % f.menu.size());
+            f.cart.add(item);
+            if (f.cart.getItemCount() > 20) {
+                f.cart.clear();
+            }
+            f.cart.add(item);
+            return f.cart.undo();
+        }));
+
+        cases.add(new Case("orderToString", 1, () -> f.orders.get(f.next++ % f.orders.size()).toString()));
+
+        cases.add(new Case("ethiopianDateTable", 1, () -> {
+            f.day = f.day.getYear() > 2090 ? LocalDate.of(2010, 1, 1) : f.day.plusDays(1);
+            return EthiopianDateUtil.formatEthiopianDate(f.day);
+        }));
+        cases.add(new Case("ethiopianDateJoda", 1, () -> {
+            f.day = f.day.getYear() > 2090 ? LocalDate.of(2010, 1, 1) : f.day.plusDays(1);
+            return EthiopianDateUtil.formatEthiopianDate(EthiopianDateUtil.convertWithJoda(f.day));
+        }));
+        return cases;
+    }
+
+    private record Case(String name, int opsPerInvocation, BenchmarkRunner.Benchmark benchmark) {
+    }
+
+    /**
+     * Shared benchmark state: a menu, a day of orders and the same orders as joined
+     * order/item rows, in the layouts of OrderRowMapper and of the legacy mapping.
+     */
+    private static final class Fixture {
+        final List<MenuItem> menu = new ArrayList<>();
+        final List<Order> orders = new ArrayList<>();
+        final List<Object[]> orderRows = new ArrayList<>();
+        final List<Object[]> legacyOrderRows = new ArrayList<>();
+        final MenuCatalog catalog;
+        final OrderDAO orderDAO;
+        final SalesAccumulator sales = new SalesAccumulator();
+        final Cart cart = new Cart();
+        final ReportRange range = ReportRange.day(LocalDate.of(2025, 4, 12));
+        final long cash;
+        LocalDate day = LocalDate.of(2010, 1, 1);
+        int next;
+
+        Fixture(Random random) {
+            for (int id = 1; id <= 60; id++) {
+                String category = CATEGORIES[id % CATEGORIES.length];
+                menu.add(new MenuItem(id, "ምግብ Item " + id, 2_000 + random.nextInt(40) * 500L, category, category));
+            }
+            catalog = new MenuCatalog(1, menu);
+            MenuCatalogCache catalogCache = new MenuCatalogCache(null);
+            catalogCache.seed(catalog);
+            orderDAO = new OrderDAO(catalogCache);
+
+            LocalDateTime time = range.from().atTime(7, 0);
+            for (int id = 1; id <= ORDERS_PER_DAY; id++) {
+                time = time.plusSeconds(60 + random.nextInt(120));
+                Order order = new Order();
+                order.setId(id);
+                order.setTimestamp(time);
+                order.setIsTaxed(random.nextInt(3) == 0);
+                int lines = 1 + random.nextInt(5);
+                for (int l = 0; l < lines; l++) {
+                    MenuItem item = menu.get((id * 7 + l * 13) % menu.size());
+                    int quantity = 1 + random.nextInt(3);
+                    order.addLine(new OrderLine(item, quantity));
+                    orderRows.add(new Object[] {
+                        id, Timestamp.valueOf(time), order.getIsTaxed(), order.getClientId().toString(),
+                        item.getId(), item.getName(),
+                        item.getCategory(), item.getPrice(), quantity
+                    });
+                    legacyOrderRows.add(new Object[] {
+                        id, Timestamp.valueOf(time), order.getIsTaxed(), item.getId(), item.getName(),
+                        item.getCategory(), new BigDecimal(Money.toDecimal(item.getPrice()).toPlainString()), quantity
+                    });
+                }
+                orders.add(order);
+            }
+            sales.reset(orders);
+            cash = sales.getTaxedTotal() + sales.getUntaxedTotal() - 10_000;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package application;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory stand-in for a driver result set, so DAO mapping code can be benchmarked
+ * on any machine without MySQL.
+ * Like Connector/J it hands out a new String, BigDecimal or Timestamp on every getter
+ * call, so allocation figures stay comparable with the real driver. The proxy itself
+ * also allocates per call; {@link HotPathBenchmarks} measures a plain scan of the rows
+ * as the baseline to subtract.
+ *
+ * @author Musab
+ */
+final class InMemoryResultSet implements InvocationHandler {
+
+    private final Map<String, Integer> columns = new HashMap<>();
+    private final List<Object[]> rows;
+    private int row = -1;
+    private boolean lastWasNull;
+
+    private InMemoryResultSet(String[] columnNames, List<Object[]> rows) {
+        for (int i = 0; i < columnNames.length; i++) {
+            columns.put(columnNames[i].toLowerCase(Locale.ROOT), i + 1);
+        }
+        this.rows = rows;
+    }
+
+    /**
+     * Creates a result set over rows of column values.
+     * Values are Integer, Long, Boolean, String, BigDecimal or Timestamp.
+     *
+     * @param columnNames column labels, in order
+     * @param rows the rows; each array holds one value per column
+     * @return a forward-only result set positioned before the first row
+     */
+    static ResultSet of(String[] columnNames, List<Object[]> rows) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[] { ResultSet.class }, new InMemoryResultSet(columnNames, rows));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+        switch (method.getName()) {
+            case "next":
+                return ++row < rows.size();
+            case "close":
+                return null;
+            case "isClosed":
+                return false;
+            case "wasNull":
+                return lastWasNull;
+            case "findColumn":
+                return column(args[0]);
+            case "getInt":
+                return value(args[0]) instanceof Number n ? n.intValue() : 0;
+            case "getLong":
+                return value(args[0]) instanceof Number n ? n.longValue() : 0L;
+            case "getBoolean":
+                return value(args[0]) instanceof Boolean b ? b : Boolean.FALSE;
+            case "getString": {
+                Object value = value(args[0]);
+                return value == null ? null : new String(value.toString());
+            }
+            case "getBigDecimal": {
+                Object value = value(args[0]);
+                return value == null ? null : new BigDecimal(value.toString());
+            }
+            case "getTimestamp": {
+                Object value = value(args[0]);
+                return value == null ? null : new Timestamp(((Timestamp) value).getTime());
+            }
+            case "getObject":
+                return value(args[0]);
+            default:
+                throw new SQLException("Not supported by the in-memory result set: " + method.getName());
+        }
+    }
+
+    private Object value(Object columnRef) throws SQLException {
+        Object value = rows.get(row)[column(columnRef) - 1];
+        lastWasNull = value == null;
+        return value;
+    }
+
+    private int column(Object columnRef) throws SQLException {
+        if (columnRef instanceof Integer index) {
+            return index;
+        }
+        Integer index = columns.get(((String) columnRef).toLowerCase(Locale.ROOT));
+        if (index == null) {
+            throw new SQLException("No column " + columnRef);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,55 @@
+package application;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Copy of the order mapping OrderDAO used before {@link OrderRowMapper}, kept so
+ * {@link HotPathBenchmarks} can compare the two. It reads columns by name, allocates
+ * an Order per row through getOrDefault, re-reads the timestamp on every row and
+ * builds a BigDecimal per row for the price.
+ *
+ * @author Musab
+ */
+final class LegacyOrderMapping {
+
+    /** Select list the legacy mapping read, by label. */
+    static final String[] COLUMNS = {
+        "id", "timestamp", "taxed", "menu_id", "name", "category", "price", "quantity"
+    };
+
+    private LegacyOrderMapping() {
+    }
+
+    static Collection<Order> mapOrders(ResultSet rs, MenuCatalog catalog) throws SQLException {
+        Map<Integer, Order> orderMap = new LinkedHashMap<>();
+
+        while (rs.next()) {
+            int orderId = rs.getInt("id");
+            Order order = orderMap.getOrDefault(orderId, new Order());
+            order.setId(orderId);
+            order.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+            order.setIsTaxed(rs.getBoolean("taxed"));
+
+            int menuId = rs.getInt("menu_id");
+            long price = Money.fromDecimal(rs.getBigDecimal("price"));
+            MenuItem item = catalog.getItem(menuId);
+            if (item == null || item.getPrice() != price) {
+                item = new MenuItem();
+                item.setId(menuId);
+                item.setName(rs.getString("name"));
+                item.setCategory(rs.getString("category"));
+                item.setType(rs.getString("category"));
+                item.setPrice(price);
+            }
+
+            order.addLine(new OrderLine(item, rs.getInt("quantity")));
+            orderMap.put(orderId, order);
+        }
+
+        return orderMap.values();
+    }
+}
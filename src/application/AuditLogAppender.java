@@ -0,0 +1,175 @@
+package application;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-blocking audit log writer.
+ * Actions are stamped and queued on the calling thread, and a background writer
+ * inserts them in batches, so logging a click never waits on MySQL.
+ * When the queue is full new entries are dropped and counted rather than blocking the UI.
+ *
+ * @author Musab
+ */
+public class AuditLogAppender {
+
+    /** Entries that may wait for the database before new ones are dropped. */
+    private static final int CAPACITY = 1_000;
+
+    /** Maximum entries written by a single batch insert. */
+    private static final int BATCH_SIZE = 100;
+
+    /** Attempts made per batch before its entries are counted as failed. */
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MILLIS = 1_000;
+
+    private final LogDAO logDAO;
+    private final BlockingQueue<LogEntry> queue = new ArrayBlockingQueue<>(CAPACITY);
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final Thread writer;
+
+    private volatile boolean accepting = true;
+    private volatile boolean draining;
+
+    /**
+     * Creates the appender and starts its writer thread.
+     *
+     * @param logDAO DAO used to insert the entries
+     */
+    public AuditLogAppender(LogDAO logDAO) {
+        this.logDAO = logDAO;
+        this.writer = new Thread(this::run, "audit-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues an action for logging without blocking. The timestamp is taken now,
+     * not when the entry reaches the database.
+     *
+     * @param action the user action to log
+     * @return false if the entry was dropped because the queue is full or closed
+     */
+    public boolean append(String action) {
+        if (!accepting || !queue.offer(new LogEntry(action, LocalDateTime.now()))) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting entries and waits for the queued ones to be written.
+     *
+     * @param timeoutMillis how long to wait for the queue to drain
+     * @return the number of entries that were dropped or could not be written since startup
+     */
+    public long shutdown(long timeoutMillis) {
+        accepting = false;
+        draining = true;
+        writer.interrupt();
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything the writer did not reach in time is lost.
+        failed.addAndGet(queue.size());
+        queue.clear();
+        return dropped.get() + failed.get();
+    }
+
+    /**
+     * Returns the number of entries written to the database.
+     *
+     * @return written entry count
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * Returns the number of entries dropped because the queue was full or closed.
+     *
+     * @return dropped entry count
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the number of entries given up on after repeated database failures.
+     *
+     * @return failed entry count
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Returns the number of entries waiting to be written.
+     *
+     * @return queued entry count
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<LogEntry> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            try {
+                LogEntry first = draining ? queue.poll() : queue.take();
+                if (first == null) {
+                    return;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                if (draining) {
+                    continue;
+                }
+                return;
+            }
+            queue.drainTo(batch, BATCH_SIZE - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<LogEntry> batch) {
+        OrderLifecycleEvents.AuditLogWrite event = new OrderLifecycleEvents.AuditLogWrite();
+        event.begin();
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            if (logDAO.insertLogs(batch)) {
+                written.addAndGet(batch.size());
+                commit(event, batch.size(), attempt, true);
+                return;
+            }
+            if (attempt < MAX_ATTEMPTS) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(RETRY_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    // Shutdown was requested; make the remaining attempts straight away.
+                }
+            }
+        }
+        failed.addAndGet(batch.size());
+        commit(event, batch.size(), MAX_ATTEMPTS, false);
+    }
+
+    private static void commit(OrderLifecycleEvents.AuditLogWrite event, int entries, int attempts, boolean written) {
+        if (event.shouldCommit()) {
+            event.entryCount = entries;
+            event.attempts = attempts;
+            event.written = written;
+            event.commit();
+        }
+    }
+}
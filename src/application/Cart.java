@@ -0,0 +1,130 @@
+package application;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The order being rung up: one line per menu item in the order items were first added,
+ * an undo stack of added items and a running total.
+ * Adding and undoing are constant time however large the order gets.
+ *
+ * @author Musab
+ */
+public class Cart {
+
+    /** Lines keyed by menu item id, in the order they were first added. */
+    private final Map<Integer, OrderLine> linesById = new LinkedHashMap<>();
+
+    /** Menu item ids in the order they were added, most recent on top. */
+    private final Deque<Integer> undoStack = new ArrayDeque<>();
+
+    private int itemCount;
+
+    /** Running total in santim. */
+    private long total;
+
+    /**
+     * Adds one unit of a menu item.
+     *
+     * @param item the item sold
+     * @return the item's line, with its updated quantity
+     */
+    public OrderLine add(MenuItem item) {
+        OrderLine line = linesById.get(item.getId());
+        if (line == null) {
+            line = new OrderLine(item, 1);
+            linesById.put(item.getId(), line);
+        } else {
+            line.addQuantity(1);
+        }
+        undoStack.push(item.getId());
+        itemCount++;
+        total += line.getUnitPrice();
+        return line;
+    }
+
+    /**
+     * Removes the most recently added unit.
+     * A line whose quantity drops to zero is removed from the cart.
+     *
+     * @return the affected line, with its updated quantity, or null if the cart is empty
+     */
+    public OrderLine undo() {
+        Integer id = undoStack.poll();
+        if (id == null) {
+            return null;
+        }
+        OrderLine line = linesById.get(id);
+        line.addQuantity(-1);
+        if (line.getQuantity() == 0) {
+            linesById.remove(id);
+        }
+        itemCount--;
+        total -= line.getUnitPrice();
+        return line;
+    }
+
+    /**
+     * Returns the cart lines in the order they were first added.
+     *
+     * @return unmodifiable view of the lines
+     */
+    public Collection<OrderLine> getLines() {
+        return Collections.unmodifiableCollection(linesById.values());
+    }
+
+    /**
+     * Returns true if nothing has been added.
+     *
+     * @return true if the cart is empty
+     */
+    public boolean isEmpty() {
+        return itemCount == 0;
+    }
+
+    /**
+     * Returns the number of units in the cart.
+     *
+     * @return sum of the line quantities
+     */
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Returns the price of everything in the cart.
+     *
+     * @return running total of the cart, in santim
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Builds an order from the cart. The order gets its own copies of the lines,
+     * so it is not affected when the cart is cleared or changed afterwards.
+     *
+     * @return a new order with the cart's lines
+     */
+    public Order toOrder() {
+        Order order = new Order();
+        for (OrderLine line : linesById.values()) {
+            order.addLine(new OrderLine(line.getItem(), line.getQuantity(), line.getUnitPrice()));
+        }
+        return order;
+    }
+
+    /**
+     * Empties the cart.
+     */
+    public void clear() {
+        linesById.clear();
+        undoStack.clear();
+        itemCount = 0;
+        total = 0;
+    }
+}
@@ -1,10 +1,11 @@
 package application;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDate;
 
 /**
  * Handles cash operations including insert, update and retrieval
@@ -13,30 +14,38 @@ import java.sql.SQLException;
  * @author Musab
  */
 public class CashDAO {
+
+    /** Cash log queries; the rows of a read are the cash entries found, 0 or 1. */
+    private static final OperationMetrics ADD_CASH = Metrics.operation("CashDAO.addCash");
+    private static final OperationMetrics UPDATE_TODAY_CASH = Metrics.operation("CashDAO.updateTodayCash");
+    private static final OperationMetrics GET_TODAY_CASH = Metrics.operation("CashDAO.getTodayCash");
+    private static final OperationMetrics GET_CASH = Metrics.operation("CashDAO.getCash");
 	
 	/**
-     * Establishes a connection to the database.
+     * Borrows a connection from the shared pool.
      *
      * @return a Connection object to the database
      * @throws SQLException if a database access error occurs
      */
     private Connection connect() throws SQLException {
-        String url = "jdbc:mysql://localhost:3306/restaurant_db";
-        String user = "root";
-        String password = "root";
-        return DriverManager.getConnection(url, user, password);
+        return DatabaseConnection.getConnection();
     }
     
     /**
      * Adds cash to today's log.
      *
-     * @param amount the amount of cash to add
+     * @param amount the amount of cash to add, in santim
      */
-    public void addCash(double amount) {
-        String sql = "INSERT INTO cash_log (date, amount) VALUES (CURDATE(), ?)";
-        try (Connection conn = connect(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setDouble(1, amount);
-            stmt.executeUpdate();
+    public void addCash(long amount) {
+        String sql = "INSERT INTO cash_log (date, amount) VALUES (?, ?)";
+        try {
+            ADD_CASH.time(() -> {
+                try (Connection conn = connect(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setDate(1, Date.valueOf(LocalDate.now()));
+                    stmt.setBigDecimal(2, Money.toDecimal(amount));
+                    return stmt.executeUpdate();
+                }
+            }, rows -> rows);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -45,13 +54,18 @@ public class CashDAO {
     /**
      * Updates the cash amount for the current day.
      *
-     * @param amount the new cash amount
+     * @param amount the new cash amount, in santim
      */
-    public void updateTodayCash(double amount) {
-        String sql = "UPDATE cash_log SET amount = ? WHERE date = CURDATE()";
-        try (Connection conn = connect(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setDouble(1, amount);
-            stmt.executeUpdate();
+    public void updateTodayCash(long amount) {
+        String sql = "UPDATE cash_log SET amount = ? WHERE date >= ? AND date < ?";
+        try {
+            UPDATE_TODAY_CASH.time(() -> {
+                try (Connection conn = connect(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setBigDecimal(1, Money.toDecimal(amount));
+                    setDayRange(stmt, 2, LocalDate.now());
+                    return stmt.executeUpdate();
+                }
+            }, rows -> rows);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -60,18 +74,65 @@ public class CashDAO {
     /**
      * Retrieves the amount of cash logged for today.
      *
-     * @return today's logged cash amount
+     * @return today's logged cash amount, in santim
      */
-    public double getTodayCash() {
-        String sql = "SELECT amount FROM cash_log WHERE date = CURDATE()";
-        try (Connection conn = connect(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getDouble("amount");
+    public long getTodayCash() {
+        String sql = "SELECT amount FROM cash_log WHERE date >= ? AND date < ?";
+        try {
+            Long amount = GET_TODAY_CASH.time(() -> {
+                try (Connection conn = connect(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    setDayRange(stmt, 1, LocalDate.now());
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        return rs.next() ? Money.fromDecimal(rs.getBigDecimal("amount")) : null;
+                    }
+                }
+            }, found -> found == null ? 0 : 1);
+            if (amount != null) {
+                return amount;
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return 0.0;
+        return 0;
+    }
+
+    /**
+     * Retrieves the total cash logged over a range of days.
+     *
+     * @param from first day
+     * @param toExclusive day after the last day
+     * @return the logged cash in santim
+     */
+    public long getCash(LocalDate from, LocalDate toExclusive) {
+        String sql = "SELECT COUNT(*), COALESCE(SUM(amount), 0) FROM cash_log WHERE date >= ? AND date < ?";
+        try {
+            long[] countAndSum = GET_CASH.time(() -> {
+                try (Connection conn = connect(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setDate(1, Date.valueOf(from));
+                    stmt.setDate(2, Date.valueOf(toExclusive));
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        rs.next();
+                        return new long[] { rs.getLong(1), Money.fromDecimal(rs.getBigDecimal(2)) };
+                    }
+                }
+            }, found -> found[0]);
+            return countAndSum[1];
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * Binds a half-open [day, next day) range on the date column.
+     *
+     * @param stmt the statement to bind
+     * @param firstIndex parameter index of the range start; the end goes in the next one
+     * @param day the day to cover
+     * @throws SQLException if binding fails
+     */
+    private void setDayRange(PreparedStatement stmt, int firstIndex, LocalDate day) throws SQLException {
+        stmt.setDate(firstIndex, Date.valueOf(day));
+        stmt.setDate(firstIndex + 1, Date.valueOf(day.plusDays(1)));
     }
 }
@@ -0,0 +1,377 @@
+package application;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of physical JDBC connections.
+ * Connections handed out are proxies: calling close() returns the physical
+ * connection to the pool instead of tearing down the socket, so the DAOs can
+ * keep using try-with-resources unchanged.
+ *
+ * @author Musab
+ */
+public class ConnectionPool {
+
+    /** Idle connections younger than this are handed out without a validation ping. */
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+
+    /** Seconds a validation ping may take before the connection is considered dead. */
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final int minIdle;
+    private final long borrowTimeoutMillis;
+    private final long leakThresholdMillis;
+
+    /** Idle physical connections, most recently returned first. */
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+
+    /** Connections currently borrowed, watched by the leak detector. */
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+
+    /** One permit per connection that may be borrowed at the same time. */
+    private final Semaphore permits;
+
+    private final ScheduledExecutorService leakDetector;
+
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool. No connection is opened until {@link #warmUp()} or the first borrow.
+     *
+     * @param url JDBC url of the database
+     * @param user database user
+     * @param password database password
+     * @param maxSize maximum number of connections borrowed at the same time
+     * @param minIdle number of connections opened by {@link #warmUp()}
+     * @param borrowTimeoutMillis how long a caller waits for a free connection
+     * @param leakThresholdMillis how long a connection may be held before it is reported as leaked
+     */
+    public ConnectionPool(String url, String user, String password, int maxSize, int minIdle,
+                          long borrowTimeoutMillis, long leakThresholdMillis) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.minIdle = Math.min(minIdle, maxSize);
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.leakDetector = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-leak-detector");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, leakThresholdMillis / 2);
+        leakDetector.scheduleAtFixedRate(this::detectLeaks, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens connections until {@link #minIdle} are idle, so the first
+     * cashier actions of the day don't pay the TCP and auth handshake.
+     */
+    public void warmUp() {
+        while (!closed && idle.size() < minIdle && totalConnections.get() < maxSize) {
+            try {
+                idle.offerLast(new PooledConnection(openPhysical()));
+            } catch (SQLException e) {
+                System.err.println("Connection pool warm-up failed: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Borrows a connection, waiting up to the borrow timeout for one to become free.
+     * Closing the returned connection gives it back to the pool.
+     *
+     * @return a validated connection
+     * @throws SQLException if the pool is closed, exhausted, or the database is unreachable
+     */
+    public Connection borrow() throws SQLException {
+        return borrow(false);
+    }
+
+    /**
+     * Borrows a connection that is expected to be held for a long time, such as one
+     * streaming a whole export. The leak detector does not report it, however long it is held.
+     *
+     * @return a validated connection
+     * @throws SQLException if the pool is closed, exhausted, or the database is unreachable
+     */
+    public Connection borrowLongLived() throws SQLException {
+        return borrow(true);
+    }
+
+    private Connection borrow(boolean longLived) throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is shut down");
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                // 08001: no connection could be established, so callers retry it like an outage
+                throw new SQLTransientConnectionException("Timed out after " + borrowTimeoutMillis
+                        + " ms waiting for a database connection (pool size " + maxSize + ")", "08001");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(openPhysical());
+            }
+            pooled.borrowed(longLived ? null : new Throwable("Connection borrowed here"), longLived);
+            active.add(pooled);
+            borrowCount.incrementAndGet();
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the pool counters.
+     *
+     * @return current pool statistics
+     */
+    public Stats getStats() {
+        return new Stats(totalConnections.get(), active.size(), idle.size(), permits.getQueueLength(), maxSize,
+                borrowCount.get(), createdCount.get(), validationFailures.get(), timeoutCount.get(), leakCount.get());
+    }
+
+    /**
+     * Closes all idle connections and stops handing out new ones.
+     * Borrowed connections are closed as they are returned.
+     */
+    public void shutdown() {
+        closed = true;
+        leakDetector.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            pooled.closePhysical();
+        }
+    }
+
+    private PooledConnection takeValidIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (pooled.isValid()) {
+                return pooled;
+            }
+            validationFailures.incrementAndGet();
+            pooled.closePhysical();
+        }
+        return null;
+    }
+
+    private Connection openPhysical() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        totalConnections.incrementAndGet();
+        createdCount.incrementAndGet();
+        return physical;
+    }
+
+    private void giveBack(PooledConnection pooled) {
+        active.remove(pooled);
+        try {
+            if (closed || pooled.broken || !pooled.reset()) {
+                pooled.closePhysical();
+            } else {
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void detectLeaks() {
+        long now = System.nanoTime();
+        for (PooledConnection pooled : active) {
+            long heldMillis = TimeUnit.NANOSECONDS.toMillis(now - pooled.borrowedAt);
+            if (heldMillis > leakThresholdMillis && !pooled.leakReported && !pooled.longLived) {
+                pooled.leakReported = true;
+                leakCount.incrementAndGet();
+                System.err.println("Possible connection leak: connection held for " + heldMillis + " ms");
+                Throwable borrower = pooled.borrower;
+                if (borrower != null) {
+                    borrower.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * A physical connection owned by the pool, plus the bookkeeping for its current borrower.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private volatile long borrowedAt;
+        private volatile Throwable borrower;
+        private volatile boolean leakReported;
+        /** Borrowed with {@link #borrowLongLived()}, so not watched by the leak detector. */
+        private volatile boolean longLived;
+        private volatile boolean broken;
+        private long returnedAt = System.nanoTime();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        void borrowed(Throwable borrower, boolean longLived) {
+            this.borrowedAt = System.nanoTime();
+            this.borrower = borrower;
+            this.longLived = longLived;
+            this.leakReported = false;
+        }
+
+        boolean isValid() {
+            if (System.nanoTime() - returnedAt < TimeUnit.MILLISECONDS.toNanos(VALIDATION_BYPASS_MILLIS)) {
+                return true;
+            }
+            try {
+                return physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /** Undoes anything the borrower left behind; false if the connection is no longer usable. */
+        boolean reset() {
+            try {
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                returnedAt = System.nanoTime();
+                borrower = null;
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void closePhysical() {
+            totalConnections.decrementAndGet();
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                // Already gone; nothing left to release.
+            }
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new Handle(this));
+        }
+    }
+
+    /**
+     * The connection the DAOs see. close() returns the physical connection to the pool exactly once.
+     */
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean logicallyClosed;
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!logicallyClosed) {
+                        logicallyClosed = true;
+                        giveBack(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return logicallyClosed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + pooled.physical;
+                default:
+                    break;
+            }
+            if (logicallyClosed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sql && sql.getSQLState() != null
+                        && sql.getSQLState().startsWith("08")) {
+                    // SQLState class 08 is a connection exception: don't hand this socket out again.
+                    pooled.broken = true;
+                }
+                throw cause;
+            }
+        }
+    }
+
+    /**
+     * Point-in-time pool counters.
+     *
+     * @param total physical connections currently open
+     * @param active connections currently borrowed
+     * @param idle connections waiting in the pool
+     * @param waiting callers blocked waiting for a connection
+     * @param maxSize configured pool bound
+     * @param borrows connections handed out since startup
+     * @param created physical connections opened since startup
+     * @param validationFailures idle connections discarded because they failed validation
+     * @param timeouts borrows that gave up waiting
+     * @param leaks connections reported as held past the leak threshold
+     */
+    public record Stats(int total, int active, int idle, int waiting, int maxSize, long borrows,
+                        long created, long validationFailures, long timeouts, long leaks) {
+
+        @Override
+        public String toString() {
+            return "Connections: " + total + " open (" + active + " active, " + idle + " idle, max " + maxSize + ")"
+                    + ", waiting: " + waiting
+                    + ", borrows: " + borrows
+                    + ", created: " + created
+                    + ", validation failures: " + validationFailures
+                    + ", timeouts: " + timeouts
+                    + ", leaks: " + leaks;
+        }
+    }
+}
@@ -2,18 +2,34 @@ package application;
 
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.sql.DriverManager;
 
 /**
  * Utility class to handle database connections.
+ * Connections come from a shared pool; closing one returns it to the pool.
  *
  * @author Musab
  */
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/restaurant_db";
+    /** rewriteBatchedStatements lets Connector/J send a JDBC batch as one multi-row INSERT. */
+    private static final String URL = "jdbc:mysql://localhost:3306/restaurant_db?rewriteBatchedStatements=true";
     private static final String USER = "root";
     private static final String PASSWORD = "root";
 
+    /** Upper bound on connections open at the same time. */
+    private static final int MAX_POOL_SIZE = 8;
+
+    /** Connections opened ahead of time by {@link #warmUp()}. */
+    private static final int MIN_IDLE = 2;
+
+    /** How long a DAO call waits for a free connection before failing. */
+    private static final long BORROW_TIMEOUT_MILLIS = 5_000;
+
+    /** Connections held longer than this are reported as leaked. */
+    private static final long LEAK_THRESHOLD_MILLIS = 30_000;
+
+    private static final ConnectionPool POOL = new ConnectionPool(URL, USER, PASSWORD,
+            MAX_POOL_SIZE, MIN_IDLE, BORROW_TIMEOUT_MILLIS, LEAK_THRESHOLD_MILLIS);
+
     /**
      * Provides a connection to the MySQL database.
      *
@@ -21,7 +37,56 @@ public class DatabaseConnection {
      * @throws SQLException if the connection fails
      */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return POOL.borrow();
+    }
+
+    /**
+     * Provides a connection for work that holds it well past the leak threshold, such as
+     * an export streaming every order of a range. It is not reported as leaked.
+     *
+     * @return the database connection
+     * @throws SQLException if the connection fails
+     */
+    public static Connection getLongLivedConnection() throws SQLException {
+        return POOL.borrowLongLived();
     }
-}
 
+    /**
+     * Tells whether a failure means the database could not be reached, as opposed to a
+     * statement the database refused. Only these are worth retrying unchanged.
+     *
+     * @param e the failure
+     * @return true if it or one of its causes has an SQLState of class 08 (connection exception)
+     */
+    public static boolean isConnectionFailure(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Opens the minimum number of idle connections ahead of the first DAO call.
+     */
+    public static void warmUp() {
+        POOL.warmUp();
+    }
+
+    /**
+     * Returns the current connection pool statistics.
+     *
+     * @return pool statistics snapshot
+     */
+    public static ConnectionPool.Stats getPoolStats() {
+        return POOL.getStats();
+    }
+
+    /**
+     * Closes all pooled connections. Called when the application exits.
+     */
+    public static void shutdown() {
+        POOL.shutdown();
+    }
+}
@@ -0,0 +1,232 @@
+package application;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import org.joda.time.chrono.EthiopicChronology;
+
+/**
+ * Precomputed Gregorian to Ethiopian day table covering a span of Gregorian years.
+ * Every day in the span is stored as one packed int, so a conversion either way is an
+ * array lookup. Only the first day of the span is converted with Joda; the rest follow
+ * from the Ethiopian calendar rules (twelve 30-day months, then Pagume with 5 days,
+ * or 6 in the year before a year divisible by 4).
+ *
+ * @author Musab
+ */
+public final class EthiopianCalendarTable {
+
+    /** Number of 30-day months before Pagume. */
+    private static final int MONTHS_OF_30_DAYS = 12;
+    private static final int PAGUME = 13;
+
+    private final LocalDate firstDay;
+    private final long firstEpochDay;
+
+    /** Ethiopian date of each Gregorian day, packed as year << 9 | month << 5 | day. */
+    private final int[] ethiopianByDay;
+
+    /** Ethiopian year of the first slot in {@link #newYearIndex}. */
+    private final int firstEthiopianYear;
+
+    /**
+     * Index into {@link #ethiopianByDay} of each Meskerem 1. Negative for the first year,
+     * which starts before the span, and Integer.MIN_VALUE for a year that starts after it.
+     */
+    private final int[] newYearIndex;
+
+    /**
+     * Builds the table for whole Gregorian years.
+     *
+     * @param fromYear first Gregorian year covered
+     * @param toYear last Gregorian year covered, inclusive
+     */
+    public EthiopianCalendarTable(int fromYear, int toYear) {
+        if (toYear < fromYear) {
+            throw new IllegalArgumentException("toYear " + toYear + " is before fromYear " + fromYear);
+        }
+        firstDay = LocalDate.of(fromYear, 1, 1);
+        firstEpochDay = firstDay.toEpochDay();
+        int length = (int) (LocalDate.of(toYear + 1, 1, 1).toEpochDay() - firstEpochDay);
+        ethiopianByDay = new int[length];
+
+        org.joda.time.LocalDate anchor = EthiopianDateUtil.convertWithJoda(firstDay);
+        int year = anchor.getYear();
+        int month = anchor.getMonthOfYear();
+        int day = anchor.getDayOfMonth();
+
+        firstEthiopianYear = year;
+        newYearIndex = new int[(toYear - fromYear) + 2];
+        Arrays.fill(newYearIndex, Integer.MIN_VALUE);
+        newYearIndex[0] = -dayOfYear(month, day);
+
+        for (int i = 0; i < length; i++) {
+            ethiopianByDay[i] = pack(year, month, day);
+            day++;
+            if (day > daysInMonth(year, month)) {
+                day = 1;
+                month++;
+                if (month > PAGUME) {
+                    month = 1;
+                    year++;
+                    newYearIndex[year - firstEthiopianYear] = i + 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the first Gregorian day covered.
+     *
+     * @return first day of the span
+     */
+    public LocalDate getFirstDay() {
+        return firstDay;
+    }
+
+    /**
+     * Returns the last Gregorian day covered.
+     *
+     * @return last day of the span
+     */
+    public LocalDate getLastDay() {
+        return firstDay.plusDays(ethiopianByDay.length - 1L);
+    }
+
+    /**
+     * Returns true if the Gregorian date falls inside the table.
+     *
+     * @param date the Gregorian date
+     * @return true if it can be looked up
+     */
+    public boolean covers(LocalDate date) {
+        long index = date.toEpochDay() - firstEpochDay;
+        return index >= 0 && index < ethiopianByDay.length;
+    }
+
+    /**
+     * Converts a Gregorian date.
+     *
+     * @param date the Gregorian date, inside the span
+     * @return the Ethiopian date
+     * @throws IllegalArgumentException if the date is outside the span
+     */
+    public EthiopianDate toEthiopian(LocalDate date) {
+        return unpack(ethiopianByDay[index(date)]);
+    }
+
+    /**
+     * Converts every day of a Gregorian range.
+     *
+     * @param from first Gregorian day, inside the span
+     * @param toExclusive day after the last one converted
+     * @return the Ethiopian dates, one per day starting at {@code from}
+     * @throws IllegalArgumentException if the range leaves the span
+     */
+    public EthiopianDate[] toEthiopian(LocalDate from, LocalDate toExclusive) {
+        int start = index(from);
+        int count = (int) (toExclusive.toEpochDay() - from.toEpochDay());
+        if (count < 0 || start + count > ethiopianByDay.length) {
+            throw new IllegalArgumentException("Range " + from + " to " + toExclusive + " is outside "
+                    + firstDay + " to " + getLastDay());
+        }
+        EthiopianDate[] dates = new EthiopianDate[count];
+        for (int i = 0; i < count; i++) {
+            dates[i] = unpack(ethiopianByDay[start + i]);
+        }
+        return dates;
+    }
+
+    /**
+     * Converts an Ethiopian date to Gregorian.
+     *
+     * @param year Ethiopian year
+     * @param month Ethiopian month, 1 to 13
+     * @param day day of the month
+     * @return the Gregorian date
+     * @throws IllegalArgumentException if the date is invalid or outside the span
+     */
+    public LocalDate toGregorian(int year, int month, int day) {
+        if (month < 1 || month > PAGUME || day < 1 || day > daysInMonth(year, month)) {
+            throw new IllegalArgumentException("Invalid Ethiopian date " + year + "-" + month + "-" + day);
+        }
+        int slot = year - firstEthiopianYear;
+        if (slot >= 0 && slot < newYearIndex.length) {
+            long index = (long) newYearIndex[slot] + dayOfYear(month, day);
+            if (index >= 0 && index < ethiopianByDay.length) {
+                return firstDay.plusDays(index);
+            }
+        }
+        throw new IllegalArgumentException("Ethiopian date " + year + "-" + month + "-" + day
+                + " is outside " + firstDay + " to " + getLastDay());
+    }
+
+    private int index(LocalDate date) {
+        long index = date.toEpochDay() - firstEpochDay;
+        if (index < 0 || index >= ethiopianByDay.length) {
+            throw new IllegalArgumentException(date + " is outside " + firstDay + " to " + getLastDay());
+        }
+        return (int) index;
+    }
+
+    /** Zero-based day of the Ethiopian year. */
+    private static int dayOfYear(int month, int day) {
+        return (month - 1) * 30 + (day - 1);
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month <= MONTHS_OF_30_DAYS) {
+            return 30;
+        }
+        // Leap years are the ones before a year divisible by 4
+        return Math.floorMod(year, 4) == 3 ? 6 : 5;
+    }
+
+    private static int pack(int year, int month, int day) {
+        return year << 9 | month << 5 | day;
+    }
+
+    private static EthiopianDate unpack(int packed) {
+        return new EthiopianDate(packed >>> 9, (packed >>> 5) & 0xF, packed & 0x1F);
+    }
+
+    /**
+     * A date in the Ethiopian calendar.
+     *
+     * @param year Ethiopian year
+     * @param month month, 1 to 13
+     * @param day day of the month
+     */
+    public record EthiopianDate(int year, int month, int day) {
+
+        /**
+         * Formats the date as "dd - MM - yyyy".
+         *
+         * @return the formatted date
+         */
+        public String format() {
+            StringBuilder sb = new StringBuilder(14);
+            pad(sb, day, 2).append(" - ");
+            pad(sb, month, 2).append(" - ");
+            return pad(sb, year, 4).toString();
+        }
+
+        /**
+         * Returns the same date as a Joda LocalDate in the Ethiopic chronology.
+         *
+         * @return the Joda date
+         */
+        public org.joda.time.LocalDate toJoda() {
+            return new org.joda.time.LocalDate(year, month, day, EthiopicChronology.getInstanceUTC());
+        }
+
+        private static StringBuilder pad(StringBuilder sb, int value, int width) {
+            for (int limit = 10, i = 1; i < width; i++, limit *= 10) {
+                if (value < limit) {
+                    sb.append('0');
+                }
+            }
+            return sb.append(value);
+        }
+    }
+}
@@ -7,11 +7,33 @@ import org.joda.time.chrono.GregorianChronology;
 
 /**
  * Utility class to convert Gregorian dates to Ethiopian calendar dates.
+ * Dates between {@link #TABLE_FROM_YEAR} and {@link #TABLE_TO_YEAR} are looked up in a
+ * precomputed {@link EthiopianCalendarTable}; dates outside it are converted with Joda.
  *
  * @author Musab
  */
 public class EthiopianDateUtil {
 
+	/** First Gregorian year of the shared conversion table. */
+	public static final int TABLE_FROM_YEAR = 2000;
+
+	/** Last Gregorian year of the shared conversion table. */
+	public static final int TABLE_TO_YEAR = 2100;
+
+	/** Builds the shared table on first use. */
+	private static final class TableHolder {
+		static final EthiopianCalendarTable TABLE = new EthiopianCalendarTable(TABLE_FROM_YEAR, TABLE_TO_YEAR);
+	}
+
+	/**
+	 * Returns the shared conversion table.
+	 *
+	 * @return table covering {@link #TABLE_FROM_YEAR} to {@link #TABLE_TO_YEAR}
+	 */
+	public static EthiopianCalendarTable getTable() {
+		return TableHolder.TABLE;
+	}
+
 	/**
      * Converts a Gregorian date to an Ethiopian LocalDate.
      *
@@ -19,6 +41,20 @@ public class EthiopianDateUtil {
      * @return equivalent Ethiopian calendar date
      */
     public static LocalDate toEthiopianDate(java.time.LocalDate gregorianDate) {
+        EthiopianCalendarTable table = getTable();
+        if (table.covers(gregorianDate)) {
+            return table.toEthiopian(gregorianDate).toJoda();
+        }
+        return convertWithJoda(gregorianDate);
+    }
+
+    /**
+     * Converts a Gregorian date through Joda's chronologies, without the table.
+     *
+     * @param gregorianDate the date in Gregorian calendar
+     * @return equivalent Ethiopian calendar date
+     */
+    static LocalDate convertWithJoda(java.time.LocalDate gregorianDate) {
         // Create DateTime with GregorianChronology
         DateTime gregDateTime = new DateTime(
                 gregorianDate.getYear(),
@@ -41,9 +77,21 @@ public class EthiopianDateUtil {
      * @return formatted Ethiopian date string
      */
     public static String formatEthiopianDate(LocalDate etDate) {
-        return String.format("%02d - %02d - %04d",
-                etDate.getDayOfMonth(),
-                etDate.getMonthOfYear(),
-                etDate.getYear());
+        return new EthiopianCalendarTable.EthiopianDate(
+                etDate.getYear(), etDate.getMonthOfYear(), etDate.getDayOfMonth()).format();
+    }
+
+    /**
+     * Converts a Gregorian date and formats it as an Ethiopian date string.
+     *
+     * @param gregorianDate the date in Gregorian calendar
+     * @return formatted Ethiopian date string
+     */
+    public static String formatEthiopianDate(java.time.LocalDate gregorianDate) {
+        EthiopianCalendarTable table = getTable();
+        if (table.covers(gregorianDate)) {
+            return table.toEthiopian(gregorianDate).format();
+        }
+        return formatEthiopianDate(convertWithJoda(gregorianDate));
     }
 }
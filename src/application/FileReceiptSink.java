@@ -0,0 +1,36 @@
+package application;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Writes each receipt to a text file, for tills without a printer.
+ *
+ * @author Musab
+ */
+public class FileReceiptSink implements ReceiptSink {
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final Path directory;
+
+    /**
+     * Creates the sink.
+     *
+     * @param directory directory the receipt files are written to; created if missing
+     */
+    public FileReceiptSink(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public void print(Receipt receipt, List<String> lines) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve("Receipt_" + FILE_TIME.format(receipt.time()) + ".txt");
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,72 @@
+package application;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+
+/**
+ * Moves journaled orders into the {@link OrderCommitQueue}, oldest first, as the
+ * queue has room for them. Orders the queue cannot take yet wait here, and also stay
+ * pending in the {@link OrderJournal}; a new sale joins the back of the same line, so
+ * it is never saved ahead of orders left over from an outage or an earlier run.
+ *
+ * @author Musab
+ */
+public class JournalReplayer {
+
+    private final OrderCommitQueue commitQueue;
+
+    /** Journaled orders not handed to the queue yet, oldest first. */
+    private final Deque<Order> backlog = new ArrayDeque<>();
+
+    /**
+     * @param commitQueue queue the orders are fed into
+     */
+    public JournalReplayer(OrderCommitQueue commitQueue) {
+        this.commitQueue = commitQueue;
+    }
+
+    /**
+     * Adds journaled orders behind the ones already waiting and feeds the queue.
+     *
+     * @param orders the orders, in the order they were placed
+     */
+    public synchronized void addAll(Collection<Order> orders) {
+        backlog.addAll(orders);
+        feed();
+    }
+
+    /**
+     * Adds a newly journaled order behind the ones already waiting and feeds the queue.
+     *
+     * @param order the order
+     */
+    public synchronized void add(Order order) {
+        backlog.add(order);
+        feed();
+    }
+
+    /**
+     * Hands waiting orders to the queue until it is full or none are left. Called
+     * whenever the queue has finished with an order.
+     *
+     * @return the number of orders handed over
+     */
+    public synchronized int feed() {
+        int fed = 0;
+        while (!backlog.isEmpty() && commitQueue.submit(backlog.peek())) {
+            backlog.poll();
+            fed++;
+        }
+        return fed;
+    }
+
+    /**
+     * Returns the number of orders waiting for room in the queue.
+     *
+     * @return waiting order count
+     */
+    public synchronized int getBacklogCount() {
+        return backlog.size();
+    }
+}
@@ -2,17 +2,25 @@ package application;
 
 import java.sql.*;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * DAO for managing logs in the application.
- * Handles insertion and retrieval of log entries from the SQLite database.
+ * Handles insertion and retrieval of log entries from the database.
  *
  * @author Musab
  */
 public class LogDAO {
+
+    /** Audit log writes and reads; countLogs counts the entries it matched as rows. */
+    private static final OperationMetrics INSERT_LOG = Metrics.operation("LogDAO.insertLog");
+    private static final OperationMetrics INSERT_LOGS = Metrics.operation("LogDAO.insertLogs");
+    private static final OperationMetrics GET_ALL_LOGS = Metrics.operation("LogDAO.getAllLogs");
+    private static final OperationMetrics FOR_EACH_LOG = Metrics.operation("LogDAO.forEachLog");
+    private static final OperationMetrics COUNT_LOGS = Metrics.operation("LogDAO.countLogs");
+
     private Connection connect() {
         try {
             return DatabaseConnection.getConnection();
@@ -29,15 +37,45 @@ public class LogDAO {
     public void insertLog(String action) {
     	// DB insertion code
         String sql = "INSERT INTO logs (action, timestamp) VALUES (?, ?)";
-        try (Connection conn = connect(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, action);
-            stmt.setString(2, LocalDateTime.now().toString());
-            stmt.executeUpdate();
+        try {
+            INSERT_LOG.time(() -> {
+                try (Connection conn = connect(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setString(1, action);
+                    stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                    return stmt.executeUpdate();
+                }
+            }, rows -> rows);
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Inserts several log entries in one batch, keeping the timestamps they were created with.
+     *
+     * @param entries the entries to insert
+     * @return true if all entries were inserted
+     */
+    public boolean insertLogs(List<LogEntry> entries) {
+        String sql = "INSERT INTO logs (action, timestamp) VALUES (?, ?)";
+        try {
+            INSERT_LOGS.time(() -> {
+                try (Connection conn = connect(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (LogEntry entry : entries) {
+                        stmt.setString(1, entry.getAction());
+                        stmt.setTimestamp(2, Timestamp.valueOf(entry.getTimeStamp()));
+                        stmt.addBatch();
+                    }
+                    return stmt.executeBatch();
+                }
+            }, counts -> counts.length);
+            return true;
+        } catch (SQLException | RuntimeException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
     /**
      * Retrieves all log entries from the database.
      *
@@ -45,18 +83,130 @@ public class LogDAO {
      */
     public List<LogEntry> getAllLogs() {
         List<LogEntry> logs = new ArrayList<>();
-        String sql = "SELECT * FROM logs ORDER BY timestamp DESC";
-        try (Connection conn = connect(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                String action = rs.getString("action");
-                
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-                LocalDateTime timestamp = LocalDateTime.parse(rs.getString("timestamp"), formatter);
-                logs.add(new LogEntry(action, timestamp));
-            }
+        String sql = "SELECT action, timestamp FROM logs ORDER BY timestamp DESC";
+        try {
+            GET_ALL_LOGS.time(() -> {
+                try (Connection conn = connect(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+                    while (rs.next()) {
+                        logs.add(new LogEntry(rs.getString(1), rs.getTimestamp(2).toLocalDateTime()));
+                    }
+                    return logs;
+                }
+            }, List::size);
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return logs;
     }
+
+    /**
+     * Retrieves one page of log entries matching the filters, newest first.
+     * Filtering, sorting and paging all happen in SQL.
+     *
+     * @param from only entries at or after this time; null for no lower bound
+     * @param to only entries before this time; null for no upper bound
+     * @param text only entries whose action contains this text; null or blank for all
+     * @param limit maximum number of entries to return
+     * @param offset number of matching entries to skip
+     * @return the page of log entries
+     */
+    public List<LogEntry> getLogs(LocalDateTime from, LocalDateTime to, String text, int limit, int offset) {
+        List<LogEntry> logs = new ArrayList<>(limit);
+        forEachLog(from, to, text, limit, offset, logs::add);
+        return logs;
+    }
+
+    /**
+     * Streams log entries matching the filters, newest first, without buffering
+     * the result set in memory.
+     *
+     * @param from only entries at or after this time; null for no lower bound
+     * @param to only entries before this time; null for no upper bound
+     * @param text only entries whose action contains this text; null or blank for all
+     * @param limit maximum number of entries to read
+     * @param offset number of matching entries to skip
+     * @param consumer receives each entry
+     */
+    public void forEachLog(LocalDateTime from, LocalDateTime to, String text, int limit, int offset,
+                           Consumer<LogEntry> consumer) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT action, timestamp FROM logs" + whereClause(from, to, text, params)
+                + " ORDER BY timestamp DESC LIMIT ? OFFSET ?";
+        params.add(limit);
+        params.add(offset);
+
+        try {
+            FOR_EACH_LOG.time(() -> {
+                try (Connection conn = connect();
+                     PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    // Connector/J streams rows one at a time instead of buffering the whole result
+                    stmt.setFetchSize(Integer.MIN_VALUE);
+                    bind(stmt, params);
+                    long rows = 0;
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            consumer.accept(new LogEntry(rs.getString(1), rs.getTimestamp(2).toLocalDateTime()));
+                            rows++;
+                        }
+                    }
+                    return rows;
+                }
+            }, rows -> rows);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Counts the log entries matching the filters.
+     *
+     * @param from only entries at or after this time; null for no lower bound
+     * @param to only entries before this time; null for no upper bound
+     * @param text only entries whose action contains this text; null or blank for all
+     * @return number of matching entries
+     */
+    public int countLogs(LocalDateTime from, LocalDateTime to, String text) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT COUNT(*) FROM logs" + whereClause(from, to, text, params);
+        try {
+            return COUNT_LOGS.time(() -> {
+                try (Connection conn = connect(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    bind(stmt, params);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        return rs.next() ? rs.getInt(1) : 0;
+                    }
+                }
+            }, count -> count);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    private String whereClause(LocalDateTime from, LocalDateTime to, String text, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (from != null) {
+            conditions.add("timestamp >= ?");
+            params.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            conditions.add("timestamp < ?");
+            params.add(Timestamp.valueOf(to));
+        }
+        if (text != null && !text.isBlank()) {
+            conditions.add("action LIKE ? ESCAPE '!'");
+            params.add("%" + escapeLike(text.trim()) + "%");
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private void bind(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
 }
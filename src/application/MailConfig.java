@@ -0,0 +1,96 @@
+package application;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Outbound mail settings, read from mail.properties.
+ *
+ * @param host SMTP server host
+ * @param port SMTP server port
+ * @param startTls true to upgrade the connection with STARTTLS
+ * @param username SMTP login; empty if the server needs no authentication
+ * @param password SMTP password
+ * @param from sender address
+ * @param subject subject used for report emails
+ * @param recipients report recipients
+ *
+ * @author Musab
+ */
+public record MailConfig(String host, int port, boolean startTls, String username, String password,
+        String from, String subject, List<String> recipients) {
+
+    /** Settings shipped with the application. */
+    public static final Path DEFAULT_FILE = Path.of("resources", "mail.properties");
+
+    /** Settings for this till, which override the shipped ones when present. */
+    public static final Path LOCAL_FILE = Path.of("mail.properties");
+
+    public MailConfig {
+        recipients = List.copyOf(recipients);
+    }
+
+    /**
+     * Loads the shipped settings, overridden by the local file if there is one.
+     *
+     * @return the mail settings
+     * @throws IOException if a settings file cannot be read
+     */
+    public static MailConfig load() throws IOException {
+        Properties props = new Properties();
+        for (Path file : List.of(DEFAULT_FILE, LOCAL_FILE)) {
+            if (Files.exists(file)) {
+                try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    props.load(reader);
+                }
+            }
+        }
+        return fromProperties(props);
+    }
+
+    /**
+     * Builds settings from properties.
+     *
+     * @param props the mail.* properties
+     * @return the mail settings
+     * @throws IllegalArgumentException if the host, sender or recipients are missing
+     */
+    public static MailConfig fromProperties(Properties props) {
+        List<String> recipients = new ArrayList<>();
+        for (String address : props.getProperty("mail.recipients", "").split(",")) {
+            if (!address.isBlank()) {
+                recipients.add(address.trim());
+            }
+        }
+        String host = props.getProperty("mail.smtp.host", "").trim();
+        String username = props.getProperty("mail.username", "").trim();
+        String from = props.getProperty("mail.from", username).trim();
+        if (host.isEmpty() || from.isEmpty() || recipients.isEmpty()) {
+            throw new IllegalArgumentException("mail.smtp.host, mail.from and mail.recipients must be set");
+        }
+        return new MailConfig(
+                host,
+                Integer.parseInt(props.getProperty("mail.smtp.port", "587").trim()),
+                Boolean.parseBoolean(props.getProperty("mail.smtp.starttls", "true").trim()),
+                username,
+                props.getProperty("mail.password", ""),
+                from,
+                props.getProperty("mail.subject", "Formatted Sales Report").trim(),
+                recipients);
+    }
+
+    /**
+     * Returns true if the server needs a login.
+     *
+     * @return true if a username is configured
+     */
+    public boolean requiresAuth() {
+        return !username.isEmpty();
+    }
+}
@@ -0,0 +1,90 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the menu with lookups by id and by category.
+ * The items are shared by every view and order that reads this snapshot,
+ * so they must not be modified; edits go through {@link MenuCatalogCache}.
+ *
+ * @author Musab
+ */
+public final class MenuCatalog {
+
+    /** Snapshot used before the menu has been loaded. */
+    static final MenuCatalog EMPTY = new MenuCatalog(-1, List.of());
+
+    private final long version;
+    private final List<MenuItem> items;
+    private final Map<Integer, MenuItem> itemsById;
+    private final Map<String, List<MenuItem>> itemsByCategory;
+
+    /**
+     * Builds a snapshot and its indexes.
+     *
+     * @param version the menu version the items were read at
+     * @param items the menu items, in display order
+     */
+    public MenuCatalog(long version, List<MenuItem> items) {
+        this.version = version;
+        this.items = List.copyOf(items);
+
+        Map<Integer, MenuItem> byId = new HashMap<>(items.size() * 2);
+        Map<String, List<MenuItem>> byCategory = new LinkedHashMap<>();
+        for (MenuItem item : this.items) {
+            byId.put(item.getId(), item);
+            byCategory.computeIfAbsent(key(item.getType()), _ -> new ArrayList<>()).add(item);
+        }
+        byCategory.replaceAll((_, list) -> Collections.unmodifiableList(list));
+        this.itemsById = Collections.unmodifiableMap(byId);
+        this.itemsByCategory = Collections.unmodifiableMap(byCategory);
+    }
+
+    /**
+     * Returns the menu version this snapshot was read at.
+     *
+     * @return the menu version, or -1 if it is unknown
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns all menu items.
+     *
+     * @return unmodifiable list of items
+     */
+    public List<MenuItem> getItems() {
+        return items;
+    }
+
+    /**
+     * Looks up a menu item by id.
+     *
+     * @param id the menu item id
+     * @return the shared item, or null if the menu has no such item
+     */
+    public MenuItem getItem(int id) {
+        return itemsById.get(id);
+    }
+
+    /**
+     * Returns the items of one category.
+     *
+     * @param category the category, compared ignoring case
+     * @return unmodifiable list of items, empty if the category has none
+     */
+    public List<MenuItem> getItemsInCategory(String category) {
+        return itemsByCategory.getOrDefault(key(category), List.of());
+    }
+
+    private static String key(String category) {
+        return category == null ? "" : category.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,123 @@
+package application;
+
+import java.util.List;
+
+/**
+ * Holds the current {@link MenuCatalog} snapshot.
+ * The snapshot is replaced, never changed in place, when the menu is edited through
+ * this cache or when the menu version stored in the database moves on because
+ * another till edited it.
+ *
+ * @author Musab
+ */
+public class MenuCatalogCache {
+
+    private final MenuItemDAO menuItemDAO;
+    private volatile MenuCatalog catalog;
+
+    /**
+     * Creates an empty cache; the menu is loaded on first use.
+     *
+     * @param menuItemDAO DAO used to load and edit the menu
+     */
+    public MenuCatalogCache(MenuItemDAO menuItemDAO) {
+        this.menuItemDAO = menuItemDAO;
+    }
+
+    /**
+     * Returns the current snapshot, loading the menu if it has not been loaded yet.
+     *
+     * @return the menu snapshot; an empty one, not cached, if the menu could not be loaded
+     */
+    public MenuCatalog get() {
+        MenuCatalog current = catalog;
+        if (current == null) {
+            current = reload();
+        }
+        return current == null ? MenuCatalog.EMPTY : current;
+    }
+
+    /**
+     * Returns the current snapshot without touching the database.
+     *
+     * @return the loaded snapshot, or an empty one if the menu has not been loaded
+     */
+    public MenuCatalog peek() {
+        MenuCatalog current = catalog;
+        return current == null ? MenuCatalog.EMPTY : current;
+    }
+
+    /**
+     * Reloads the menu if its version in the database differs from the cached one,
+     * or if no menu has been loaded yet, whatever the version lookup returns.
+     * If the database cannot be read the current snapshot is kept.
+     *
+     * @return true if a new snapshot was loaded
+     */
+    public boolean refreshIfChanged() {
+        MenuCatalog current = catalog;
+        if (current == null || current == MenuCatalog.EMPTY) {
+            return reload() != current;
+        }
+        long version = menuItemDAO.getMenuVersion();
+        if (version == -1 || version == current.getVersion()) {
+            return false;
+        }
+        return reload() != current;
+    }
+
+    /**
+     * Uses a snapshot kept from an earlier run until the menu is loaded from the database.
+     * Its version is compared as usual, so {@link #refreshIfChanged()} replaces it
+     * if the menu was edited since.
+     *
+     * @param seed the earlier snapshot
+     */
+    public synchronized void seed(MenuCatalog seed) {
+        if (catalog == null) {
+            catalog = seed;
+        }
+    }
+
+    /**
+     * Drops the cached snapshot so the next {@link #get()} reloads the menu.
+     */
+    public void invalidate() {
+        catalog = null;
+    }
+
+    /**
+     * Adds an item to the menu and invalidates the cached snapshot.
+     *
+     * @param item the menu item to add
+     */
+    public void addItem(MenuItem item) {
+        menuItemDAO.addItem(item);
+        invalidate();
+    }
+
+    /**
+     * Loads a new snapshot. A failed read never replaces the current snapshot,
+     * so the till keeps selling from the menu it has while the database is down.
+     * Without a current snapshot the items are loaded even if the version cannot be read,
+     * for example while the menu_version table is missing; the snapshot then has version -1
+     * and is replaced as soon as a version can be read.
+     *
+     * @return the new snapshot, or the current one (null if none) if the menu could not be read
+     */
+    private synchronized MenuCatalog reload() {
+        // Read the version first: an edit made while the items load leaves the
+        // snapshot with an older version, so the next check reloads it again.
+        long version = menuItemDAO.getMenuVersion();
+        if (version == -1 && catalog != null && catalog != MenuCatalog.EMPTY) {
+            return catalog;
+        }
+        List<MenuItem> items = menuItemDAO.getAllItems();
+        if (items == null) {
+            return catalog;
+        }
+        MenuCatalog loaded = new MenuCatalog(version, items);
+        catalog = loaded;
+        return loaded;
+    }
+}
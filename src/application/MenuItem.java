@@ -8,11 +8,12 @@ package application;
 public class MenuItem {
 	private int id;
     private String name;
-    private double price;
+    /** Price in santim. */
+    private long price;
     private String type;
     private String category;
     
-    public MenuItem(int id, String name, double price, String type, String category) {
+    public MenuItem(int id, String name, long price, String type, String category) {
     	this.id = id;
         this.name = name;
         this.price = price;
@@ -44,11 +45,16 @@ public class MenuItem {
     	this.name = name;
     }
 
-    public double getPrice() {
+    /**
+     * Returns the price in santim.
+     *
+     * @return the price
+     */
+    public long getPrice() {
         return price;
     }
     
-    public void setPrice(double price) {
+    public void setPrice(long price) {
     	this.price = price;
     }
     
@@ -14,33 +14,66 @@ import java.util.List;
  * @author Musab
  */
 public class MenuItemDAO {
+
+    /** Menu queries. getMenuVersion runs on every refresh check, so it is the one to watch. */
+    private static final OperationMetrics GET_ALL_ITEMS = Metrics.operation("MenuItemDAO.getAllItems");
+    private static final OperationMetrics GET_MENU_VERSION = Metrics.operation("MenuItemDAO.getMenuVersion");
+    private static final OperationMetrics ADD_ITEM = Metrics.operation("MenuItemDAO.addItem");
 	
     /**
      * Retrieves all menu items from the database.
      *
-     * @return list of all menu items
+     * @return list of all menu items, or null if they could not be read
      */
     public List<MenuItem> getAllItems() {
         List<MenuItem> items = new ArrayList<>();
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT * FROM menu_items")) {
-
-            while (rs.next()) {
-                MenuItem item = new MenuItem();
-                item.setId(rs.getInt("id"));
-                item.setName(rs.getString("name"));
-                item.setCategory(rs.getString("category"));
-                item.setPrice(rs.getDouble("price"));
-                item.setType(rs.getString("category"));
-                items.add(item);
-            }
+        try {
+            GET_ALL_ITEMS.time(() -> {
+                try (Connection conn = DatabaseConnection.getConnection();
+                     Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT * FROM menu_items")) {
+
+                    while (rs.next()) {
+                        MenuItem item = new MenuItem();
+                        item.setId(rs.getInt("id"));
+                        item.setName(rs.getString("name"));
+                        item.setCategory(rs.getString("category"));
+                        item.setPrice(Money.fromDecimal(rs.getBigDecimal("price")));
+                        item.setType(rs.getString("category"));
+                        items.add(item);
+                    }
+                    return items;
+                }
+            }, List::size);
         } catch (SQLException e) {
             e.printStackTrace();
+            return null;
         }
         return items;
     }
 
+    /**
+     * Reads the menu version, which the database bumps on every change to menu_items.
+     *
+     * @return the menu version, 0 if the menu is not versioned yet, or -1 if it could not be read
+     */
+    public long getMenuVersion() {
+        try {
+            Long version = GET_MENU_VERSION.time(() -> {
+                try (Connection conn = DatabaseConnection.getConnection();
+                     Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT version FROM menu_version WHERE id = 1")) {
+
+                    return rs.next() ? rs.getLong(1) : null;
+                }
+            }, found -> found == null ? 0 : 1);
+            return version == null ? 0 : version;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
     /**
      * Adds a new menu item to the database.
      *
@@ -48,14 +81,17 @@ public class MenuItemDAO {
      */
     public void addItem(MenuItem item) {
         String sql = "INSERT INTO menu_items(name, category, size, price) VALUES (?, ?, ?, ?)";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, item.getName());
-            stmt.setString(2, item.getCategory());
-            stmt.setDouble(4, item.getPrice());
-            stmt.executeUpdate();
+        try {
+            ADD_ITEM.time(() -> {
+                try (Connection conn = DatabaseConnection.getConnection();
+                     PreparedStatement stmt = conn.prepareStatement(sql)) {
 
+                    stmt.setString(1, item.getName());
+                    stmt.setString(2, item.getCategory());
+                    stmt.setBigDecimal(4, Money.toDecimal(item.getPrice()));
+                    return stmt.executeUpdate();
+                }
+            }, rows -> rows);
         } catch (SQLException e) {
             e.printStackTrace();
         }
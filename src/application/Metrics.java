@@ -0,0 +1,90 @@
+package application;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the {@link OperationMetrics} of the application, shown on the
+ * Diagnostics screen and dumped to a file on request.
+ * Classes look up their operations once, in static fields, so recording a call
+ * is only a clock read and a few counter updates.
+ *
+ * @author Musab
+ */
+public final class Metrics {
+
+    private static final ConcurrentMap<String, OperationMetrics> OPERATIONS = new ConcurrentHashMap<>();
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+
+    private Metrics() {
+    }
+
+    /**
+     * Returns the metrics of an operation, creating them on first use.
+     *
+     * @param name operation name, e.g. "OrderDAO.saveOrder"
+     * @return the operation's metrics
+     */
+    public static OperationMetrics operation(String name) {
+        return OPERATIONS.computeIfAbsent(name, OperationMetrics::new);
+    }
+
+    /**
+     * Returns a snapshot of every operation, sorted by name.
+     *
+     * @return the snapshots
+     */
+    public static List<OperationMetrics.Snapshot> snapshot() {
+        List<OperationMetrics.Snapshot> snapshots = new ArrayList<>(OPERATIONS.size());
+        for (OperationMetrics operation : OPERATIONS.values()) {
+            snapshots.add(operation.snapshot());
+        }
+        snapshots.sort(Comparator.comparing(OperationMetrics.Snapshot::name));
+        return snapshots;
+    }
+
+    /**
+     * Formats every operation as a fixed-width table, latencies in milliseconds.
+     *
+     * @return the table
+     */
+    public static String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-34s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "Operation", "Calls", "Errors", "Rows", "Mean ms", "p50 ms", "p95 ms", "p99 ms", "Max ms"));
+        for (OperationMetrics.Snapshot s : snapshot()) {
+            sb.append(String.format(Locale.ROOT, "%-34s %8d %6.1f%% %9d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    s.name(), s.count(), s.errorRate() * 100, s.rows(), millis(s.meanNanos()),
+                    millis(s.p50Nanos()), millis(s.p95Nanos()), millis(s.p99Nanos()), millis(s.maxNanos())));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes a diagnostics report to a time-stamped file in the working directory.
+     *
+     * @param report the report text
+     * @return the written file
+     * @throws IOException if the file cannot be written
+     */
+    public static Path dump(String report) throws IOException {
+        Path file = Path.of("Diagnostics_" + LocalDateTime.now().format(FILE_TIME) + ".txt");
+        Files.writeString(file, report, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,119 @@
+package application;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money helpers. Amounts are plain {@code long}s counted in santim
+ * (1/100 Birr), so totals add up exactly however many items are summed.
+ *
+ * @author Musab
+ */
+public final class Money {
+
+    /** Santim in one Birr. */
+    public static final long SANTIM_PER_BIRR = 100;
+
+    /** Turnover tax rate included in taxed prices, in percent. */
+    public static final int TOT_PERCENT = 10;
+
+    private Money() {
+    }
+
+    /**
+     * Converts a decimal Birr amount, as read from the database, to santim.
+     * Fractions of a santim are rounded half up.
+     *
+     * @param birr the amount in Birr; null is treated as zero
+     * @return the amount in santim
+     */
+    public static long fromDecimal(BigDecimal birr) {
+        if (birr == null) {
+            return 0;
+        }
+        return birr.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts santim to a decimal Birr amount for binding to the database.
+     *
+     * @param santim the amount in santim
+     * @return the amount in Birr with two decimals
+     */
+    public static BigDecimal toDecimal(long santim) {
+        return BigDecimal.valueOf(santim, 2);
+    }
+
+    /**
+     * Parses an amount typed by the user, such as "1250", "1250.5" or "1,250.50".
+     *
+     * @param text the amount in Birr
+     * @return the amount in santim
+     * @throws NumberFormatException if the text is not an amount with at most two decimals
+     */
+    public static long parse(String text) {
+        if (text == null) {
+            throw new NumberFormatException("No amount");
+        }
+        BigDecimal birr = new BigDecimal(text.trim().replace(",", ""));
+        if (birr.scale() > 2 && birr.stripTrailingZeros().scale() > 2) {
+            throw new NumberFormatException("More than two decimals: " + text);
+        }
+        return birr.movePointRight(2).longValueExact();
+    }
+
+    /**
+     * Returns the turnover tax contained in a tax-inclusive amount.
+     * The company share, gross * 100 / (100 + TOT), is rounded half up to the santim,
+     * and the tax is the remainder, so share plus tax always equals the gross amount.
+     *
+     * @param gross the tax-inclusive amount in santim
+     * @return the TOT part in santim
+     */
+    public static long tot(long gross) {
+        return gross - companyShare(gross);
+    }
+
+    /**
+     * Returns the company share of a tax-inclusive amount.
+     *
+     * @param gross the tax-inclusive amount in santim
+     * @return the amount without TOT in santim, rounded half up
+     * @see #tot(long)
+     */
+    public static long companyShare(long gross) {
+        long divisor = 100 + TOT_PERCENT;
+        return Math.floorDiv(gross * 200 + divisor, 2 * divisor);
+    }
+
+    /**
+     * Formats santim as Birr with two decimals, e.g. 123456 as "1234.56".
+     *
+     * @param santim the amount in santim
+     * @return the formatted amount
+     */
+    public static String format(long santim) {
+        return appendTo(new StringBuilder(12), santim).toString();
+    }
+
+    /**
+     * Appends santim formatted as Birr with two decimals, without creating
+     * intermediate strings.
+     *
+     * @param sb the builder to append to
+     * @param santim the amount in santim
+     * @return the builder
+     */
+    public static StringBuilder appendTo(StringBuilder sb, long santim) {
+        if (santim < 0) {
+            sb.append('-');
+        }
+        long birr = Math.abs(santim / SANTIM_PER_BIRR);
+        int cents = (int) Math.abs(santim % SANTIM_PER_BIRR);
+        sb.append(birr).append('.');
+        if (cents < 10) {
+            sb.append('0');
+        }
+        return sb.append(cents);
+    }
+}
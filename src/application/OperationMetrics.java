@@ -0,0 +1,195 @@
+package application;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Latency histogram, call count, error count and row count of one operation,
+ * such as a DAO method or an email send.
+ * Recording is lock-free and allocation-free: a latency lands in one of a fixed set
+ * of log-linear buckets (8 per power of two, so percentiles are within about 12%),
+ * and the counters are striped adders.
+ * <p>
+ * Operations are usually timed with {@link #time}, which records the call once its
+ * result has been read, or records a failure if it throws.
+ *
+ * @author Musab
+ */
+public final class OperationMetrics {
+
+    /** Sub-buckets per power of two, as a bit count. */
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * A call of the operation. It may throw a checked exception, such as an SQLException.
+     *
+     * @param <T> type of the result
+     * @param <E> type of the checked exception
+     */
+    @FunctionalInterface
+    public interface Call<T, E extends Exception> {
+
+        T call() throws E;
+    }
+
+    /**
+     * Runs a call and records it. If it returns, its latency is recorded with the rows
+     * counted from the result; if it throws, a failure is recorded and the exception
+     * passed on.
+     *
+     * @param call the call
+     * @param rowCount rows read or written, counted from the result
+     * @return the result of the call
+     * @throws E if the call throws it
+     */
+    public <T, E extends Exception> T time(Call<T, E> call, ToLongFunction<? super T> rowCount) throws E {
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.call();
+        } catch (Throwable t) {
+            recordFailure(start);
+            throw t;
+        }
+        record(start, rowCount.applyAsLong(result));
+        return result;
+    }
+
+    /**
+     * Records a successful call.
+     *
+     * @param startNanos {@link System#nanoTime()} when the call started
+     * @param rowCount rows read or written by the call
+     */
+    private void record(long startNanos, long rowCount) {
+        recordLatency(System.nanoTime() - startNanos);
+        rows.add(rowCount);
+    }
+
+    /**
+     * Records a failed call. Its latency is recorded too, so timeouts show up in the percentiles.
+     *
+     * @param startNanos {@link System#nanoTime()} when the call started
+     */
+    private void recordFailure(long startNanos) {
+        recordLatency(System.nanoTime() - startNanos);
+        errors.increment();
+    }
+
+    private void recordLatency(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Takes a consistent-enough copy of the current figures.
+     * Calls recorded while copying may be counted in some figures and not others.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = buckets.get(i);
+            total += copy[i];
+        }
+        long calls = count.sum();
+        long max = maxNanos.get();
+        // A bucket's upper bound can exceed the slowest call, so percentiles are capped at it
+        return new Snapshot(name, calls, errors.sum(), rows.sum(),
+                calls == 0 ? 0 : totalNanos.sum() / calls,
+                Math.min(percentile(copy, total, 0.50), max), Math.min(percentile(copy, total, 0.95), max),
+                Math.min(percentile(copy, total, 0.99), max), max);
+    }
+
+    /** Bucket index: 8 buckets per power of two, values below 8 ns share the first ones. */
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /** Upper bound of the values counted in a bucket. */
+    private static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (sub + 1) * width - 1;
+    }
+
+    private static long percentile(long[] buckets, long total, double fraction) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return bucketUpperBound(i);
+            }
+        }
+        return bucketUpperBound(buckets.length - 1);
+    }
+
+    /**
+     * Figures of one operation at one point in time. Latencies are in nanoseconds.
+     *
+     * @param name operation name
+     * @param count calls, including failed ones
+     * @param errors failed calls
+     * @param rows rows read or written by successful calls
+     * @param meanNanos mean latency
+     * @param p50Nanos median latency
+     * @param p95Nanos 95th percentile latency
+     * @param p99Nanos 99th percentile latency
+     * @param maxNanos slowest call
+     */
+    public record Snapshot(String name, long count, long errors, long rows, long meanNanos,
+                           long p50Nanos, long p95Nanos, long p99Nanos, long maxNanos) {
+
+        /**
+         * Returns the share of failed calls.
+         *
+         * @return errors divided by calls, or 0 if there were none
+         */
+        public double errorRate() {
+            return count == 0 ? 0 : (double) errors / count;
+        }
+    }
+}
@@ -2,31 +2,69 @@ package application;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
- * Represents an order containing menu items, timestamp, and tax flag.
+ * Represents an order containing quantity-aware item lines, timestamp, and tax flag.
  *
  * @author Musab
  */
 public class Order {
     private int id;
     private LocalDateTime timestamp;
-    private List<MenuItem> items;
+    private List<OrderLine> lines;
     private boolean isTaxed;
-    private static int idCounter;
+    /**
+     * Id given by the till when the order is placed, so saving it twice stores it once.
+     * Null for orders saved before the till gave out client ids.
+     */
+    private UUID clientId;
 
     public Order() {
-        items = new ArrayList<>();
+        lines = new ArrayList<>();
         timestamp = LocalDateTime.now();
+        clientId = UUID.randomUUID();
+    }
+
+    /**
+     * Creates a saved order read back from the database, with room for its lines.
+     *
+     * @param id the order id
+     * @param timestamp when the order was placed
+     * @param isTaxed true if the order is taxed
+     * @param clientId the stored client id, null for orders saved before client ids
+     * @param lineCapacity expected number of lines
+     */
+    Order(int id, LocalDateTime timestamp, boolean isTaxed, UUID clientId, int lineCapacity) {
+        this.id = id;
+        this.timestamp = timestamp;
+        this.isTaxed = isTaxed;
+        this.clientId = clientId;
+        this.lines = new ArrayList<>(lineCapacity);
     }
     
+    /**
+     * Creates an order from a list of sold items, one entry per unit.
+     * Repeated items are merged into a single line in one pass.
+     *
+     * @param items the sold items
+     */
     public Order(List<MenuItem> items) {
-    	this.id = ++idCounter;
+    	Map<Integer, OrderLine> linesById = new LinkedHashMap<>();
     	for (MenuItem item : items) {
-    		this.items.add(item);
+    		OrderLine line = linesById.get(item.getId());
+    		if (line == null) {
+    			linesById.put(item.getId(), new OrderLine(item, 1));
+    		} else {
+    			line.addQuantity(1);
+    		}
     	}
+    	this.lines = new ArrayList<>(linesById.values());
     	this.timestamp = LocalDateTime.now();
+    	this.clientId = UUID.randomUUID();
     }
     
     public int getId() {
@@ -45,8 +83,25 @@ public class Order {
     	this.timestamp = timestamp;
     }
     
-    public List<MenuItem> getOrdersList() {
-    	return items;
+    public List<OrderLine> getLines() {
+    	return lines;
+    }
+    
+    public void addLine(OrderLine line) {
+    	lines.add(line);
+    }
+    
+    /**
+     * Returns the id the till gave the order when it was placed.
+     *
+     * @return the client id, or null for an order saved before client ids
+     */
+    public UUID getClientId() {
+    	return clientId;
+    }
+    
+    public void setClientId(UUID clientId) {
+    	this.clientId = clientId;
     }
     
     public boolean getIsTaxed() {
@@ -57,16 +112,43 @@ public class Order {
     	this.isTaxed = isTaxed;
     }
     
+    /**
+     * Returns the number of units sold in this order.
+     *
+     * @return sum of the line quantities
+     */
+    public int getItemCount() {
+    	int count = 0;
+    	for (OrderLine line : lines) {
+    		count += line.getQuantity();
+    	}
+    	return count;
+    }
+    
+    /**
+     * Returns the price of the whole order.
+     *
+     * @return sum of the line totals, in santim
+     */
+    public long getTotal() {
+    	long total = 0;
+    	for (OrderLine line : lines) {
+    		total += line.getLineTotal();
+    	}
+    	return total;
+    }
     
     @Override
     public String toString() {
-    	String menuItemsList = null;
+    	StringBuilder sb = new StringBuilder("Time: ").append(timestamp);
     	int i = 1;
-    	for (MenuItem item : items) {
-    		menuItemsList = menuItemsList + "\n" + i + " - " + item.getName() + " " + item.getPrice();
+    	for (OrderLine line : lines) {
+    		sb.append('\n').append(i).append(" - ").append(line.getItem().getName())
+    				.append(" x").append(line.getQuantity()).append(' ');
+    		Money.appendTo(sb, line.getUnitPrice());
     		i++;
     	}
-    	return "Time: " + timestamp + "\n" + menuItemsList;
+    	return sb.toString();
     }
     
 }
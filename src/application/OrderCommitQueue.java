@@ -0,0 +1,164 @@
+package application;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientException;
+import java.sql.SQLTransientException;
+
+/**
+ * Write-behind queue that persists placed orders on a background thread,
+ * so the cashier never waits on MySQL.
+ * Orders are committed one at a time in the order they were placed. While the database
+ * is unreachable, or a transient error such as a deadlock occurs, the head order is retried
+ * with exponential backoff. An order the database refuses outright, for example one
+ * selling a deleted menu item, is set aside so it cannot hold up the orders behind it.
+ *
+ * @author Musab
+ */
+public class OrderCommitQueue extends WorkerQueue<Order> {
+
+    /**
+     * Orders that may wait for the database. Placed orders are journaled on disk first,
+     * so this only bounds memory during a long outage.
+     */
+    private static final int CAPACITY = 10_000;
+
+    private static final long INITIAL_RETRY_DELAY_MILLIS = 500;
+    private static final long MAX_RETRY_DELAY_MILLIS = 30_000;
+
+    /** Attempts made per order while draining on shutdown; orders still failing are reported as abandoned. */
+    private static final int SHUTDOWN_ATTEMPTS = 3;
+
+    /**
+     * Receives progress from the commit worker. Callbacks run on the worker thread,
+     * except {@link #pendingChanged} which also runs on the thread that submits an order.
+     */
+    public interface Listener {
+
+        /**
+         * Called whenever the number of orders not yet persisted or the retry state changes.
+         * Calls from different threads may arrive out of order, so listeners that hand the
+         * values to another thread should read {@link #getPendingCount()} and
+         * {@link #isRetrying()} there instead.
+         *
+         * @param pending orders queued or being committed
+         * @param retrying true while the head order is failing and being retried
+         */
+        void pendingChanged(int pending, boolean retrying);
+
+        /**
+         * Called after an order has been committed.
+         *
+         * @param order the committed order, with its database id set
+         */
+        void committed(Order order);
+
+        /**
+         * Called when the database refused an order in a way retrying cannot fix.
+         * The order is no longer pending; the queue goes on with the next one.
+         *
+         * @param order the refused order
+         * @param cause why it was refused
+         */
+        void rejected(Order order, Exception cause);
+
+        /**
+         * Called when an order could not be persisted before shutdown.
+         *
+         * @param order the order that was not saved
+         */
+        void abandoned(Order order);
+    }
+
+    private final OrderDAO orderDAO;
+    private final Listener listener;
+
+    private volatile boolean retrying;
+
+    /**
+     * Creates the queue. Orders are accepted straight away but only committed
+     * once {@link #start()} is called, when the database schema is known to be ready.
+     *
+     * @param orderDAO DAO used to save the orders
+     * @param listener receives commit progress
+     */
+    public OrderCommitQueue(OrderDAO orderDAO, Listener listener) {
+        super("order-commit-worker", CAPACITY, INITIAL_RETRY_DELAY_MILLIS);
+        this.orderDAO = orderDAO;
+        this.listener = listener;
+    }
+
+    /**
+     * Tells whether the head order is failing and being retried.
+     *
+     * @return true while retrying
+     */
+    public boolean isRetrying() {
+        return retrying;
+    }
+
+    @Override
+    protected void submitted(int pendingCount) {
+        listener.pendingChanged(pendingCount, false);
+    }
+
+    @Override
+    protected void abandon(Order order) {
+        listener.abandoned(order);
+    }
+
+    @Override
+    protected void process(Order order) {
+        long delay = INITIAL_RETRY_DELAY_MILLIS;
+        int attempts = 0;
+        while (true) {
+            attempts++;
+            try {
+                if (orderDAO.saveOrder(order) != -1) {
+                    retrying = false;
+                    listener.committed(order);
+                    listener.pendingChanged(completed(), false);
+                } else {
+                    reject(order, new IllegalArgumentException("Order has no lines"));
+                }
+                return;
+            } catch (SQLException e) {
+                if (isPermanent(e)) {
+                    reject(order, e);
+                    return;
+                }
+                System.err.println("Saving order failed, retrying: " + e.getMessage());
+            }
+            if (isDraining() && attempts >= SHUTDOWN_ATTEMPTS) {
+                failed();
+                listener.abandoned(order);
+                return;
+            }
+            retrying = true;
+            listener.pendingChanged(getPendingCount(), true);
+            backOff(delay);
+            delay = Math.min(delay * 2, MAX_RETRY_DELAY_MILLIS);
+        }
+    }
+
+    private void reject(Order order, Exception cause) {
+        retrying = false;
+        int count = completed();
+        listener.rejected(order, cause);
+        listener.pendingChanged(count, false);
+    }
+
+    /**
+     * Tells whether saving failed for a reason retrying cannot fix: anything but a
+     * connection failure (SQLState class 08), a transient error such as a deadlock, or a
+     * missing table or column (42S02, 42S22), which means the schema lags the till and is
+     * fixed by upgrading it. Failures without an SQLState, such as an interrupted wait for
+     * a connection, are retried.
+     */
+    private static boolean isPermanent(SQLException e) {
+        if (DatabaseConnection.isConnectionFailure(e) || e instanceof SQLTransientException
+                || "42S02".equals(e.getSQLState()) || "42S22".equals(e.getSQLState())) {
+            return false;
+        }
+        return e instanceof SQLNonTransientException || e.getSQLState() != null;
+    }
+}
@@ -1,12 +1,13 @@
 package application;
 
 import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -21,21 +22,97 @@ import java.sql.Statement;
  */
 public class OrderDAO {
 
-	public int saveOrder(List<MenuItem> orderItems, boolean taxed) {
+    /** Order queries by method name; saveOrder counts the lines of the order as its rows. */
+    private static final OperationMetrics SAVE_ORDER = Metrics.operation("OrderDAO.saveOrder");
+    private static final OperationMetrics GET_TODAY_ORDERS = Metrics.operation("OrderDAO.getTodayOrders");
+    private static final OperationMetrics GET_TODAY_ORDERS_SINCE = Metrics.operation("OrderDAO.getTodayOrdersSince");
+    private static final OperationMetrics GET_ORDER_DAYS = Metrics.operation("OrderDAO.getOrderDays");
+    private static final OperationMetrics GET_ORDERS_FOR_DAY = Metrics.operation("OrderDAO.getOrdersForDay");
+    private static final OperationMetrics GET_ORDERS_BY_IDS = Metrics.operation("OrderDAO.getOrdersByIds");
+    private static final OperationMetrics FOR_EACH_ORDER_ITEM = Metrics.operation("OrderDAO.forEachOrderItemSince");
+    private static final OperationMetrics GET_ALL_ORDERS = Metrics.operation("OrderDAO.getAllOrders");
+    private static final OperationMetrics GET_IS_TAXED = Metrics.operation("OrderDAO.getIsTaxed");
+    private static final OperationMetrics DELETE_ORDER = Metrics.operation("OrderDAO.deleteOrder");
+
+    /** Source of shared menu items for mapped orders; null to build a new item per row. */
+    private final MenuCatalogCache menuCatalog;
+
+    /**
+     * Creates a DAO that builds a new menu item for every order line it reads.
+     */
+    public OrderDAO() {
+        this(null);
+    }
+
+    /**
+     * Creates a DAO that maps order lines onto the shared menu items of the catalog.
+     *
+     * @param menuCatalog the menu catalog cache
+     */
+    public OrderDAO(MenuCatalogCache menuCatalog) {
+        this.menuCatalog = menuCatalog;
+    }
+
+	/**
+	 * Saves an order and its items in one transaction, together with the
+	 * daily sales summary update, using the order's own
+	 * timestamp so orders committed in the background keep their sale time.
+	 * On success the generated id is set on the order.
+	 * Saving is idempotent: an order whose client id is already stored is not
+	 * inserted again, and the stored order's id is returned.
+	 *
+	 * @param order the order to save
+	 * @return the generated order id, or -1 if the order has no lines
+	 * @throws SQLException if the transaction failed; nothing was saved
+	 */
+	public int saveOrder(Order order) throws SQLException {
+	    OrderLifecycleEvents.SaveOrder event = new OrderLifecycleEvents.SaveOrder();
+	    event.begin();
+	    int orderId = -1;
+	    try {
+	        orderId = SAVE_ORDER.time(() -> insertOrder(order), id -> id == -1 ? 0 : order.getLines().size());
+	        return orderId;
+	    } finally {
+	        if (event.shouldCommit()) {
+	            event.setOrder(order);
+	            event.saved = orderId != -1;
+	            event.commit();
+	        }
+	    }
+	}
+
+	/**
+	 * Runs the saveOrder transaction.
+	 *
+	 * @param order the order to save
+	 * @return the generated or already stored order id, or -1 if the order has no lines
+	 * @throws SQLException if the transaction failed
+	 */
+	private int insertOrder(Order order) throws SQLException {
 	    int orderId = -1;
+	    List<OrderLine> lines = order.getLines();
 
-	    if (orderItems == null || orderItems.isEmpty()) {
+	    if (lines == null || lines.isEmpty()) {
 	        return orderId;
 	    }
 
 	    try (Connection conn = DatabaseConnection.getConnection()) {
 	        conn.setAutoCommit(false);
 
-	        // Insert a new order with the current timestamp
-	        String insertOrder = "INSERT INTO orders(timestamp, taxed) VALUES (?, ?)";
+	        // A replayed order may already have been saved before the till lost the database
+	        int savedId = order.getClientId() == null ? -1 : findOrderId(conn, order.getClientId());
+	        if (savedId != -1) {
+	            conn.commit();
+	            order.setId(savedId);
+	            return savedId;
+	        }
+
+	        // Insert a new order with the time it was placed
+	        String insertOrder = "INSERT INTO orders(timestamp, taxed, client_uuid) VALUES (?, ?, ?)";
 	        try (PreparedStatement stmt = conn.prepareStatement(insertOrder, Statement.RETURN_GENERATED_KEYS)) {
-	            stmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
-	            stmt.setBoolean(2, taxed);
+	            stmt.setTimestamp(1, Timestamp.valueOf(order.getTimestamp()));
+	            stmt.setBoolean(2, order.getIsTaxed());
+	            stmt.setString(3, Objects.toString(order.getClientId(), null));
 	            stmt.executeUpdate();
 
 	            ResultSet keys = stmt.getGeneratedKeys();
@@ -44,64 +121,238 @@ public class OrderDAO {
 	            }
 	        }
 
-	        // Insert items into order_items table
-	        String insertItem = "INSERT INTO order_items(order_id, menu_item_id, quantity) VALUES (?, ?, ?)";
+	        // Insert one order_items row per line, carrying the line's quantity and the price charged
+	        String insertItem = "INSERT INTO order_items(order_id, menu_item_id, quantity, unit_price) VALUES (?, ?, ?, ?)";
 	        try (PreparedStatement stmt = conn.prepareStatement(insertItem)) {
-	            for (MenuItem item : orderItems) {
-	            	int quantity = Collections.frequency(orderItems, item);
+	            for (OrderLine line : lines) {
 	                stmt.setInt(1, orderId);
-	                stmt.setInt(2, item.getId());
-	                stmt.setInt(3, quantity);
+	                stmt.setInt(2, line.getMenuItemId());
+	                stmt.setInt(3, line.getQuantity());
+	                stmt.setBigDecimal(4, Money.toDecimal(line.getUnitPrice()));
 	                stmt.addBatch();
 	            }
 	            stmt.executeBatch();
 	        }
 
+	        // Keep the daily sales summary in step with the orders
+	        SalesSummaryDAO.addOrder(conn, orderId);
+
 	        conn.commit();
-	    } catch (SQLException e) {
-	        e.printStackTrace();
+	        order.setId(orderId);
 	    }
 
 	    return orderId;
 	}
 
+	/**
+	 * Looks up a saved order by the id the till gave it.
+	 * The row is locked, so a concurrent save of the same order waits for this transaction.
+	 *
+	 * @param conn connection inside the saving transaction
+	 * @param clientId the client id of the order
+	 * @return the order id, or -1 if the order has not been saved
+	 * @throws SQLException if the lookup fails
+	 */
+	private static int findOrderId(Connection conn, UUID clientId) throws SQLException {
+	    String sql = "SELECT id FROM orders WHERE client_uuid = ? FOR UPDATE";
+	    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+	        stmt.setString(1, clientId.toString());
+	        try (ResultSet rs = stmt.executeQuery()) {
+	            return rs.next() ? rs.getInt(1) : -1;
+	        }
+	    }
+	}
+
     public List<Order> getTodayOrders() {
         List<Order> orders = new ArrayList<>();
         String sql = """
-            SELECT o.id, o.timestamp, o.taxed, m.id AS menu_id, m.name, m.category, m.price
+            SELECT %s
             FROM orders o
             JOIN order_items oi ON o.id = oi.order_id
             JOIN menu_items m ON m.id = oi.menu_item_id
-            WHERE DATE(o.timestamp) = CURDATE()
-            ORDER BY o.id DESC
+            WHERE o.timestamp >= ? AND o.timestamp < ?
+            ORDER BY o.id
+        """.formatted(OrderRowMapper.COLUMNS);
+
+        try {
+            GET_TODAY_ORDERS.time(() -> {
+                try (Connection conn = DatabaseConnection.getConnection();
+                     PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                    setDayRange(stmt, 1, LocalDate.now());
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        newRowMapper().mapInto(rs, orders);
+                    }
+                    return orders;
+                }
+            }, List::size);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return orders;
+    }
+
+    /**
+     * Retrieves today's orders with an id greater than the given one, so callers
+     * holding today's orders only fetch what was saved since their last load.
+     *
+     * @param lastOrderId the highest order id already loaded
+     * @return today's newer orders, oldest first
+     */
+    public List<Order> getTodayOrdersSince(int lastOrderId) {
+        List<Order> orders = new ArrayList<>();
+        String sql = """
+            SELECT %s
+            FROM orders o
+            JOIN order_items oi ON o.id = oi.order_id
+            JOIN menu_items m ON m.id = oi.menu_item_id
+            WHERE o.id > ? AND o.timestamp >= ? AND o.timestamp < ?
+            ORDER BY o.id
+        """.formatted(OrderRowMapper.COLUMNS);
+
+        try {
+            GET_TODAY_ORDERS_SINCE.time(() -> {
+                try (Connection conn = DatabaseConnection.getConnection();
+                     PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                    stmt.setInt(1, lastOrderId);
+                    setDayRange(stmt, 2, LocalDate.now());
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        newRowMapper().mapInto(rs, orders);
+                    }
+                    return orders;
+                }
+            }, List::size);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return orders;
+    }
+
+    /**
+     * Lists days that have orders, newest first, with the number of orders on each day.
+     * Pages are keyed by day: pass the oldest day already listed to get the next page.
+     *
+     * @param before only days strictly before this one are listed
+     * @param limit maximum number of days to return
+     * @return days with their order counts
+     */
+    public List<OrderDay> getOrderDays(LocalDate before, int limit) {
+        List<OrderDay> days = new ArrayList<>();
+        String sql = """
+            SELECT DATE(o.timestamp) AS day, COUNT(*) AS order_count
+            FROM orders o
+            WHERE o.timestamp < ?
+            GROUP BY DATE(o.timestamp)
+            ORDER BY day DESC
+            LIMIT ?
         """;
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            Map<Integer, Order> orderMap = new HashMap<>();
-
-            while (rs.next()) {
-                int orderId = rs.getInt("id");
-                Order order = orderMap.getOrDefault(orderId, new Order());
-                order.setId(orderId);
-                order.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
-                order.setIsTaxed(rs.getBoolean("taxed"));
-
-                MenuItem item = new MenuItem();
-                item.setId(rs.getInt("menu_id"));
-                item.setName(rs.getString("name"));
-                item.setCategory(rs.getString("category"));
-                item.setType(rs.getString("category"));
-                item.setPrice(rs.getDouble("price"));
-                
-
-                order.getOrdersList().add(item);
-                orderMap.put(orderId, order);
-            }
+        try {
+            GET_ORDER_DAYS.time(() -> {
+                try (Connection conn = DatabaseConnection.getConnection();
+                     PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                    stmt.setTimestamp(1, Timestamp.valueOf(before.atStartOfDay()));
+                    stmt.setInt(2, limit);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            days.add(new OrderDay(rs.getDate("day").toLocalDate(), rs.getInt("order_count")));
+                        }
+                    }
+                    return days;
+                }
+            }, List::size);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return days;
+    }
+
+    /**
+     * Retrieves one page of a day's orders, newest first.
+     * Pages are keyed by order id: pass the smallest id already loaded to get the next page,
+     * so each page costs the same no matter how deep into the day it is.
+     *
+     * @param day the day to load
+     * @param beforeOrderId only orders with a smaller id are returned; use Integer.MAX_VALUE for the first page
+     * @param limit maximum number of orders to return
+     * @return the page of orders with their lines
+     */
+    public List<Order> getOrdersForDay(LocalDate day, int beforeOrderId, int limit) {
+        List<Order> orders = new ArrayList<>(limit);
+        String sql = """
+            SELECT %s
+            FROM (
+                SELECT id, timestamp, taxed, client_uuid FROM orders
+                WHERE timestamp >= ? AND timestamp < ? AND id < ?
+                ORDER BY id DESC
+                LIMIT ?
+            ) o
+            JOIN order_items oi ON o.id = oi.order_id
+            JOIN menu_items m ON m.id = oi.menu_item_id
+            ORDER BY o.id DESC
+        """.formatted(OrderRowMapper.COLUMNS);
+
+        try {
+            GET_ORDERS_FOR_DAY.time(() -> {
+                try (Connection conn = DatabaseConnection.getConnection();
+                     PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                    setDayRange(stmt, 1, day);
+                    stmt.setInt(3, beforeOrderId);
+                    stmt.setInt(4, limit);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        newRowMapper().mapInto(rs, orders);
+                    }
+                    return orders;
+                }
+            }, List::size);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return orders;
+    }
+
+    /**
+     * Retrieves the given orders with their lines, newest first.
+     *
+     * @param orderIds ids of the orders to load
+     * @return the orders that exist
+     */
+    public List<Order> getOrdersByIds(int[] orderIds) {
+        List<Order> orders = new ArrayList<>(orderIds.length);
+        if (orderIds.length == 0) {
+            return orders;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(orderIds.length, "?"));
+        String sql = """
+            SELECT %s
+            FROM orders o
+            JOIN order_items oi ON o.id = oi.order_id
+            JOIN menu_items m ON m.id = oi.menu_item_id
+            WHERE o.id IN (%s)
+            ORDER BY o.id DESC
+        """.formatted(OrderRowMapper.COLUMNS, placeholders);
 
-            orders.addAll(orderMap.values());
+        try {
+            GET_ORDERS_BY_IDS.time(() -> {
+                try (Connection conn = DatabaseConnection.getConnection();
+                     PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                    for (int i = 0; i < orderIds.length; i++) {
+                        stmt.setInt(i + 1, orderIds[i]);
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        newRowMapper().mapInto(rs, orders);
+                    }
+                    return orders;
+                }
+            }, List::size);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -109,42 +360,66 @@ public class OrderDAO {
         return orders;
     }
 
+    /**
+     * Streams the item names of every order placed since the given time, oldest first,
+     * without holding the rows in memory. Used to build the order search index.
+     *
+     * @param since only orders at or after this time are read
+     * @param handler receives one call per order line
+     */
+    public void forEachOrderItemSince(LocalDateTime since, OrderItemHandler handler) {
+        String sql = """
+            SELECT o.id, o.timestamp, m.name
+            FROM orders o
+            JOIN order_items oi ON o.id = oi.order_id
+            JOIN menu_items m ON m.id = oi.menu_item_id
+            WHERE o.timestamp >= ?
+            ORDER BY o.id
+        """;
+
+        try {
+            FOR_EACH_ORDER_ITEM.time(() -> {
+                try (Connection conn = DatabaseConnection.getConnection();
+                     PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+                    // Connector/J streams rows one at a time instead of buffering the whole result
+                    stmt.setFetchSize(Integer.MIN_VALUE);
+                    stmt.setTimestamp(1, Timestamp.valueOf(since));
+                    long rows = 0;
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            handler.accept(rs.getInt(1), rs.getTimestamp(2).toLocalDateTime().toLocalDate(), rs.getString(3));
+                            rows++;
+                        }
+                    }
+                    return rows;
+                }
+            }, rows -> rows);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
     public List<Order> getAllOrders() {
         List<Order> orders = new ArrayList<>();
         String sql = """
-            SELECT o.id, o.timestamp, o.taxed, m.id AS menu_id, m.name, m.category, m.price
+            SELECT %s
             FROM orders o
             JOIN order_items oi ON o.id = oi.order_id
             JOIN menu_items m ON m.id = oi.menu_item_id
             ORDER BY o.id DESC
-        """;
+        """.formatted(OrderRowMapper.COLUMNS);
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            Map<Integer, Order> orderMap = new HashMap<>();
-
-            while (rs.next()) {
-                int orderId = rs.getInt("id");
-                Order order = orderMap.getOrDefault(orderId, new Order());
-                order.setId(orderId);
-                order.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
-                order.setIsTaxed(rs.getBoolean("taxed"));
-
-                MenuItem item = new MenuItem();
-                item.setId(rs.getInt("menu_id"));
-                item.setName(rs.getString("name"));
-                item.setCategory(rs.getString("category"));
-                item.setType(rs.getString("category"));
-                item.setPrice(rs.getDouble("price"));
-                
-
-                order.getOrdersList().add(item);
-                orderMap.put(orderId, order);
-            }
+        try {
+            GET_ALL_ORDERS.time(() -> {
+                try (Connection conn = DatabaseConnection.getConnection();
+                     PreparedStatement stmt = conn.prepareStatement(sql);
+                     ResultSet rs = stmt.executeQuery()) {
 
-            orders.addAll(orderMap.values());
+                    newRowMapper().mapInto(rs, orders);
+                    return orders;
+                }
+            }, List::size);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -152,21 +427,48 @@ public class OrderDAO {
         return orders;
     }
 
+    /**
+     * Binds a half-open [start of day, start of next day) timestamp range, so the
+     * filter compares the raw column and MySQL can use the index on it.
+     *
+     * @param stmt the statement to bind
+     * @param firstIndex parameter index of the range start; the end goes in the next one
+     * @param day the day to cover
+     * @throws SQLException if binding fails
+     */
+    static void setDayRange(PreparedStatement stmt, int firstIndex, LocalDate day) throws SQLException {
+        stmt.setTimestamp(firstIndex, Timestamp.valueOf(day.atStartOfDay()));
+        stmt.setTimestamp(firstIndex + 1, Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+    }
+
+    /**
+     * Creates a row mapper that shares menu items with the cached menu.
+     *
+     * @return a mapper for one query
+     */
+    OrderRowMapper newRowMapper() {
+        return new OrderRowMapper(menuCatalog == null ? MenuCatalog.EMPTY : menuCatalog.peek());
+    }
+
     public Boolean getIsTaxed(int orderId) {
         String sql = "SELECT taxed FROM orders WHERE id = ?";
         boolean isTaxed = false;
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try {
+            Boolean taxed = GET_IS_TAXED.time(() -> {
+                try (Connection conn = DatabaseConnection.getConnection();
+                     PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, orderId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                 isTaxed =rs.getBoolean("taxed"); // or rs.getBoolean(1);
+                    stmt.setInt(1, orderId);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        return rs.next() ? rs.getBoolean("taxed") : null;
+                    }
+                }
+            }, found -> found == null ? 0 : 1);
+            if (taxed != null) {
+                isTaxed = taxed;
             } else {
                 System.out.println("Order with ID " + orderId + " not found.");
             }
-            
-
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -174,14 +476,52 @@ public class OrderDAO {
         
     }
 
-    public void deleteOrder(int orderId) {
+    /**
+     * Deletes an order and removes it from the daily sales summary in one transaction.
+     *
+     * @param orderId id of the order to delete
+     * @return true if the order was deleted
+     */
+    public boolean deleteOrder(int orderId) {
         String sql = "DELETE FROM orders WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, orderId);
-            stmt.executeUpdate();
+        try {
+            return DELETE_ORDER.time(() -> {
+                try (Connection conn = DatabaseConnection.getConnection()) {
+                    conn.setAutoCommit(false);
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        SalesSummaryDAO.removeOrder(conn, orderId);
+                        stmt.setInt(1, orderId);
+                        int rows = stmt.executeUpdate();
+                        conn.commit();
+                        return rows;
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        conn.setAutoCommit(true);
+                    }
+                }
+            }, rows -> rows) > 0;
         } catch (SQLException e) {
             e.printStackTrace();
+            return false;
         }
     }
+
+    /**
+     * Receives order lines streamed by {@link #forEachOrderItemSince}.
+     */
+    @FunctionalInterface
+    public interface OrderItemHandler {
+        void accept(int orderId, LocalDate date, String itemName);
+    }
+
+    /**
+     * A day in the order history and how many orders were placed on it.
+     *
+     * @param date the day
+     * @param orderCount number of orders on that day
+     */
+    public record OrderDay(LocalDate date, int orderCount) {
+    }
 }
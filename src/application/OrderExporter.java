@@ -0,0 +1,339 @@
+package application;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports order history with one entry per order line, as CSV or JSON, optionally gzipped.
+ * Rows are streamed from a forward-only cursor and encoded into a fixed-size buffer that is
+ * written to a file channel, so memory use stays flat however many years are exported.
+ * The file is written under a temporary name and only moved into place once complete.
+ *
+ * @author Musab
+ */
+public class OrderExporter {
+
+    /** Output formats. */
+    public enum Format {
+        CSV("csv"), JSON("json");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        /**
+         * Returns the file extension for this format.
+         *
+         * @return extension without the dot
+         */
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Receives export progress. Called on the exporting thread.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        /**
+         * Called periodically while orders are written, and once at the end.
+         *
+         * @param ordersWritten orders written so far
+         * @param totalOrders orders in the range when the export started
+         */
+        void progress(long ordersWritten, long totalOrders);
+    }
+
+    /** Orders written between two progress reports. */
+    private static final int PROGRESS_INTERVAL = 500;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String CSV_HEADER =
+            "order_id,timestamp,taxed,menu_item_id,item_name,category,quantity,unit_price,line_total\n";
+
+    /**
+     * Exports the orders of a range.
+     * The export stops with an {@link InterruptedIOException} if the thread is interrupted,
+     * or a {@link java.nio.channels.ClosedByInterruptException} if that happens during a write.
+     *
+     * @param range the days to export
+     * @param target file to create or replace
+     * @param format output format
+     * @param gzip true to gzip the output
+     * @param listener receives progress; may be null
+     * @return the number of orders exported
+     * @throws IOException if reading the orders or writing the file fails
+     */
+    public long export(ReportRange range, Path target, Format format, boolean gzip, ProgressListener listener)
+            throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".part");
+        long orders;
+        // Large ranges stream for longer than the pool's leak threshold
+        try (Connection conn = DatabaseConnection.getLongLivedConnection()) {
+            long total = countOrders(conn, range);
+            try (FileChannel file = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                 Output out = new Output(file, gzip)) {
+                orders = writeOrders(conn, range, format, out, listener, total);
+            }
+        } catch (SQLException e) {
+            Files.deleteIfExists(tmp);
+            throw new IOException("Reading orders failed: " + e.getMessage(), e);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return orders;
+    }
+
+    /**
+     * Builds the default export file name for a range.
+     *
+     * @param range the exported days
+     * @param format output format
+     * @param gzip true if the output is gzipped
+     * @return a file name such as Orders_2025-01-01_to_2025-12-31.csv.gz
+     */
+    public static String fileName(ReportRange range, Format format, boolean gzip) {
+        return "Orders_" + range.from() + "_to_" + range.lastDay() + "." + format.getExtension() + (gzip ? ".gz" : "");
+    }
+
+    private long countOrders(Connection conn, ReportRange range) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT COUNT(*) FROM orders WHERE timestamp >= ? AND timestamp < ?")) {
+            bindRange(stmt, range);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private long writeOrders(Connection conn, ReportRange range, Format format, Output out,
+            ProgressListener listener, long total) throws SQLException, IOException {
+        String sql = """
+            SELECT o.id, o.timestamp, o.taxed, m.id, m.name, m.category, oi.quantity, COALESCE(oi.unit_price, m.price)
+            FROM orders o
+            JOIN order_items oi ON o.id = oi.order_id
+            JOIN menu_items m ON m.id = oi.menu_item_id
+            WHERE o.timestamp >= ? AND o.timestamp < ?
+            ORDER BY o.id
+        """;
+
+        long orders = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Connector/J streams rows one at a time instead of buffering the whole result
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            bindRange(stmt, range);
+
+            StringBuilder row = new StringBuilder(256);
+            out.write(format == Format.CSV ? CSV_HEADER : "[");
+            try (ResultSet rs = stmt.executeQuery()) {
+                try {
+                    int currentOrder = -1;
+                    while (rs.next()) {
+                        int orderId = rs.getInt(1);
+                        boolean newOrder = orderId != currentOrder;
+                        if (newOrder) {
+                            if (Thread.currentThread().isInterrupted()) {
+                                throw new InterruptedIOException("Export cancelled");
+                            }
+                            if (orders > 0 && orders % PROGRESS_INTERVAL == 0 && listener != null) {
+                                listener.progress(orders, total);
+                            }
+                            currentOrder = orderId;
+                        }
+
+                        row.setLength(0);
+                        if (format == Format.CSV) {
+                            appendCsvRow(row, rs);
+                        } else {
+                            appendJsonLine(row, rs, newOrder, orders == 0);
+                        }
+                        if (newOrder) {
+                            orders++;
+                        }
+                        out.write(row);
+                    }
+                } catch (InterruptedIOException | ClosedByInterruptException e) {
+                    // Closing a streamed result set reads all remaining rows first, so stop the query
+                    try {
+                        stmt.cancel();
+                    } catch (SQLException cancelFailed) {
+                        e.addSuppressed(cancelFailed);
+                    }
+                    throw e;
+                }
+            }
+            if (format == Format.JSON) {
+                out.write(orders == 0 ? "]\n" : "]}]\n");
+            }
+        }
+        if (listener != null) {
+            listener.progress(orders, Math.max(total, orders));
+        }
+        return orders;
+    }
+
+    private static void appendCsvRow(StringBuilder row, ResultSet rs) throws SQLException {
+        BigDecimal price = rs.getBigDecimal(8);
+        int quantity = rs.getInt(7);
+        row.append(rs.getInt(1)).append(',')
+                .append(rs.getTimestamp(2).toLocalDateTime()).append(',')
+                .append(rs.getBoolean(3)).append(',')
+                .append(rs.getInt(4)).append(',');
+        appendCsvField(row, rs.getString(5)).append(',');
+        appendCsvField(row, rs.getString(6)).append(',')
+                .append(quantity).append(',')
+                .append(price.toPlainString()).append(',')
+                .append(price.multiply(BigDecimal.valueOf(quantity)).toPlainString()).append('\n');
+    }
+
+    /**
+     * Appends one line as JSON. Rows arrive sorted by order, so a new order closes the
+     * previous order's lines array and opens its own object.
+     */
+    private static void appendJsonLine(StringBuilder row, ResultSet rs, boolean newOrder, boolean firstOrder)
+            throws SQLException {
+        if (newOrder) {
+            if (!firstOrder) {
+                row.append("]},");
+            }
+            row.append("\n{\"id\":").append(rs.getInt(1))
+                    .append(",\"timestamp\":\"").append(rs.getTimestamp(2).toLocalDateTime()).append('"')
+                    .append(",\"taxed\":").append(rs.getBoolean(3))
+                    .append(",\"lines\":[");
+        } else {
+            row.append(',');
+        }
+        row.append("{\"menuItemId\":").append(rs.getInt(4)).append(",\"name\":");
+        appendJsonString(row, rs.getString(5)).append(",\"category\":");
+        appendJsonString(row, rs.getString(6))
+                .append(",\"quantity\":").append(rs.getInt(7))
+                .append(",\"unitPrice\":").append(rs.getBigDecimal(8).toPlainString()).append('}');
+    }
+
+    private static StringBuilder appendCsvField(StringBuilder sb, String value) {
+        if (value == null) {
+            return sb;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return sb.append(value);
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        return sb.append('"');
+    }
+
+    private static StringBuilder appendJsonString(StringBuilder sb, String value) {
+        if (value == null) {
+            return sb.append("null");
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"');
+    }
+
+    private static void bindRange(PreparedStatement stmt, ReportRange range) throws SQLException {
+        stmt.setTimestamp(1, Timestamp.valueOf(range.from().atStartOfDay()));
+        stmt.setTimestamp(2, Timestamp.valueOf(range.toExclusive().atStartOfDay()));
+    }
+
+    /**
+     * UTF-8 encodes text into a reusable byte buffer and drains it to a channel when full,
+     * through a gzip stream if requested.
+     */
+    private static final class Output implements AutoCloseable {
+        private final WritableByteChannel channel;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        Output(FileChannel file, boolean gzip) throws IOException {
+            if (gzip) {
+                OutputStream zipped = new GZIPOutputStream(Channels.newOutputStream(file), BUFFER_SIZE);
+                this.channel = Channels.newChannel(zipped);
+            } else {
+                this.channel = file;
+            }
+        }
+
+        void write(CharSequence text) throws IOException {
+            CharBuffer chars = CharBuffer.wrap(text);
+            while (true) {
+                CoderResult result = encoder.encode(chars, buffer, false);
+                if (result.isOverflow()) {
+                    drain();
+                } else if (result.isUnderflow()) {
+                    return;
+                } else {
+                    result.throwException();
+                }
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            encoder.encode(CharBuffer.allocate(0), buffer, true);
+            encoder.flush(buffer);
+            drain();
+            // Closing the gzip channel writes the trailer and closes the file
+            channel.close();
+        }
+    }
+}
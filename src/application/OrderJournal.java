@@ -0,0 +1,409 @@
+package application;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal of placed orders, so a sale survives
+ * a database outage or a crash before it reaches MySQL.
+ * An order is written and flushed to disk before the sale is acknowledged; when
+ * it has been saved to the database a small committed record is appended. Those
+ * records are not flushed on their own but ride along with the next order's flush:
+ * losing one only means the order is replayed, which the database ignores by its
+ * client id. An order the database refuses gets a failed record instead and is copied
+ * to a plain-text dead-letter file next to the journal, so it is not replayed forever
+ * but is not lost either. Once no order is pending the journal starts over from the
+ * beginning of the file, so it does not grow for as long as the till runs.
+ * <p>
+ * Each record is {@code [int length][int crc32][byte type][data]}. A zero length
+ * marks the end; a record with a bad length or checksum is a torn write from a crash
+ * and ends the journal there.
+ *
+ * @author Musab
+ */
+public class OrderJournal implements Closeable {
+
+    /** Where the journal is kept, relative to the working directory. */
+    public static final Path DEFAULT_FILE = Path.of("journal", "orders.journal");
+
+    /** "OJN" + format version, at the start of the file. */
+    private static final int MAGIC = 0x4F4A4E01;
+
+    private static final int HEADER_SIZE = 4;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    /** The mapped region grows in steps of this size. */
+    private static final int GROWTH = 1 << 20;
+
+    private static final byte ORDER = 1;
+    private static final byte COMMITTED = 2;
+    private static final byte FAILED = 3;
+
+    /** Dead-letter file for refused orders, in the journal's directory. */
+    private static final String REJECTED_FILE = "rejected-orders.txt";
+
+    private final Path file;
+    private final FileChannel channel;
+    private MappedByteBuffer map;
+
+    /** Where the next record is written. */
+    private int position;
+
+    /** Everything before this position has been flushed to disk. */
+    private int flushedPosition;
+
+    /** Journaled orders not yet saved to the database, in the order they were placed. */
+    private final Map<UUID, Order> pending = new LinkedHashMap<>();
+
+    private final CRC32 crc = new CRC32();
+
+    private OrderJournal(Path file, FileChannel channel, List<Order> pendingOrders) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.map = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), GROWTH));
+        if (map.getInt(0) != MAGIC) {
+            map.putInt(0, MAGIC);
+            map.putInt(HEADER_SIZE, 0);
+        }
+        for (Order order : pendingOrders) {
+            pending.put(order.getClientId(), order);
+        }
+        this.position = findEnd(map);
+        this.flushedPosition = 0;
+        flush();
+    }
+
+    /**
+     * Opens the journal, creating it if needed.
+     * If every journaled order has been saved the file is emptied first, so it
+     * only grows across restarts while the database stays unreachable.
+     *
+     * @param file the journal file
+     * @return the open journal
+     * @throws IOException if the journal cannot be read or created
+     */
+    public static OrderJournal open(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            List<Order> pendingOrders = readPending(channel, file);
+            if (pendingOrders.isEmpty()) {
+                // Nothing to replay; no mapping exists yet, so truncating is allowed on every platform
+                channel.truncate(0);
+            }
+            return new OrderJournal(file, channel, pendingOrders);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes an order and flushes it to disk, together with any committed records
+     * written since the last flush.
+     *
+     * @param order the placed order, with its client id
+     * @throws IOException if the order could not be written; the sale must not be acknowledged
+     * @throws IllegalArgumentException if the order has no client id to replay it by
+     */
+    public synchronized void append(Order order) throws IOException {
+        if (order.getClientId() == null) {
+            throw new IllegalArgumentException("Order has no client id");
+        }
+        write(ORDER, encode(order));
+        flush();
+        pending.put(order.getClientId(), order);
+    }
+
+    /**
+     * Records that an order has been saved to the database. Not flushed until the
+     * next order or {@link #close()}.
+     *
+     * @param order the saved order
+     */
+    public synchronized void markCommitted(Order order) {
+        if (pending.remove(order.getClientId()) == null) {
+            return;
+        }
+        try {
+            write(COMMITTED, encode(order.getClientId()));
+        } catch (IOException e) {
+            // The order is replayed at the next start and saved once by its client id.
+            e.printStackTrace();
+        }
+        compactIfIdle();
+    }
+
+    /**
+     * Records that the database refused an order, so it is not replayed again. The
+     * order is first copied to the dead-letter file, then the failed record is written
+     * and flushed.
+     *
+     * @param order the refused order
+     * @param cause why it was refused
+     */
+    public synchronized void markFailed(Order order, Exception cause) {
+        if (!pending.containsKey(order.getClientId())) {
+            return;
+        }
+        try {
+            Files.writeString(getRejectedFile(),
+                    LocalDateTime.now() + " order " + order.getClientId() + ": " + cause
+                            + System.lineSeparator() + "    "
+                            + order.toString().replace("\n", System.lineSeparator() + "    ")
+                            + System.lineSeparator(),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            write(FAILED, encode(order.getClientId()));
+            flush();
+        } catch (IOException e) {
+            // Kept pending: it is offered again at the next start rather than dropped.
+            e.printStackTrace();
+            return;
+        }
+        pending.remove(order.getClientId());
+        compactIfIdle();
+    }
+
+    /**
+     * Returns the journaled orders not yet saved to the database.
+     *
+     * @return the pending orders, in the order they were placed
+     */
+    public synchronized List<Order> getPendingOrders() {
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * Returns the number of journaled orders not yet saved to the database.
+     *
+     * @return pending order count
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Returns the journal file.
+     *
+     * @return the file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the dead-letter file that refused orders are copied to.
+     *
+     * @return the file, which exists only once an order has been refused
+     */
+    public Path getRejectedFile() {
+        return file.resolveSibling(REJECTED_FILE);
+    }
+
+    /**
+     * Returns how many bytes of the file the journal currently uses.
+     *
+     * @return the end of the last record
+     */
+    public synchronized int getSize() {
+        return position;
+    }
+
+    /**
+     * Flushes outstanding records and closes the file.
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    private void write(byte type, byte[] data) throws IOException {
+        int length = 1 + data.length;
+        ensureCapacity(RECORD_HEADER_SIZE + length + 4);
+        crc.reset();
+        crc.update(type);
+        crc.update(data);
+
+        // Write the body first and the length last, so a reader never sees a
+        // length whose record is not fully in the file yet.
+        map.putInt(position + 4, (int) crc.getValue());
+        map.put(position + RECORD_HEADER_SIZE, type);
+        map.put(position + RECORD_HEADER_SIZE + 1, data);
+        map.putInt(position + RECORD_HEADER_SIZE + length, 0);
+        map.putInt(position, length);
+        position += RECORD_HEADER_SIZE + length;
+    }
+
+    /**
+     * Starts the journal over once every order in it has been saved or set aside.
+     * Only the end marker moves, so the file can stay mapped; it is flushed with the
+     * next order. If the old records come back after a crash, the orders in them are
+     * all in the database and replaying them saves nothing twice.
+     */
+    private void compactIfIdle() {
+        if (!pending.isEmpty() || position == HEADER_SIZE) {
+            return;
+        }
+        map.putInt(HEADER_SIZE, 0);
+        position = HEADER_SIZE;
+        flushedPosition = HEADER_SIZE;
+    }
+
+    private void flush() {
+        if (flushedPosition < position) {
+            map.force(flushedPosition, position - flushedPosition);
+            flushedPosition = position;
+        }
+    }
+
+    private void ensureCapacity(int needed) throws IOException {
+        if (position + needed <= map.capacity()) {
+            return;
+        }
+        flush();
+        long size = ((long) position + needed + GROWTH - 1) / GROWTH * GROWTH;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Order journal is full: " + file);
+        }
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /** Finds the end of the valid records, at the first empty, torn or corrupt record. */
+    private static int findEnd(ByteBuffer journal) {
+        int pos = HEADER_SIZE;
+        int length;
+        while ((length = recordLength(journal, pos)) > 0) {
+            pos += RECORD_HEADER_SIZE + length;
+        }
+        return pos;
+    }
+
+    /**
+     * Returns the length of the record at a position if it is complete and intact.
+     *
+     * @return the record length, or 0 if the journal ends here
+     */
+    private static int recordLength(ByteBuffer journal, int pos) {
+        if (pos + RECORD_HEADER_SIZE >= journal.limit()) {
+            return 0;
+        }
+        int length = journal.getInt(pos);
+        if (length <= 0 || length > journal.limit() - pos - RECORD_HEADER_SIZE) {
+            return 0;
+        }
+        CRC32 check = new CRC32();
+        check.update(journal.slice(pos + RECORD_HEADER_SIZE, length));
+        return (int) check.getValue() == journal.getInt(pos + 4) ? length : 0;
+    }
+
+    /** Replays the journal into the orders that have no committed or failed record. */
+    private static List<Order> readPending(FileChannel channel, Path file) throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            return List.of();
+        }
+        if (channel.size() > Integer.MAX_VALUE) {
+            throw new IOException("Order journal is too large: " + file);
+        }
+        // Read into the heap rather than mapping, so the file can still be truncated afterwards
+        ByteBuffer journal = ByteBuffer.allocate((int) channel.size());
+        while (journal.hasRemaining()) {
+            if (channel.read(journal, journal.position()) < 0) {
+                break;
+            }
+        }
+        journal.flip();
+        if (journal.getInt(0) != MAGIC) {
+            throw new IOException("Not an order journal: " + file);
+        }
+
+        Map<UUID, Order> pending = new LinkedHashMap<>();
+        int pos = HEADER_SIZE;
+        int length;
+        while ((length = recordLength(journal, pos)) > 0) {
+            int body = pos + RECORD_HEADER_SIZE;
+            DataInputStream in = new DataInputStream(
+                    new ByteArrayInputStream(journal.array(), body + 1, length - 1));
+            if (journal.get(body) == ORDER) {
+                Order order = decodeOrder(in);
+                pending.put(order.getClientId(), order);
+            } else if (journal.get(body) == COMMITTED || journal.get(body) == FAILED) {
+                pending.remove(new UUID(in.readLong(), in.readLong()));
+            }
+            pos += RECORD_HEADER_SIZE + length;
+        }
+        return new ArrayList<>(pending.values());
+    }
+
+    private static byte[] encode(Order order) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + order.getLines().size() * 48);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(order.getClientId().getMostSignificantBits());
+        out.writeLong(order.getClientId().getLeastSignificantBits());
+        LocalDateTime time = order.getTimestamp();
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+        out.writeBoolean(order.getIsTaxed());
+        out.writeInt(order.getLines().size());
+        for (OrderLine line : order.getLines()) {
+            MenuItem item = line.getItem();
+            out.writeInt(item.getId());
+            out.writeUTF(Objects.toString(item.getName(), ""));
+            out.writeUTF(Objects.toString(item.getType(), ""));
+            out.writeUTF(Objects.toString(item.getCategory(), ""));
+            out.writeLong(line.getUnitPrice());
+            out.writeInt(line.getQuantity());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encode(UUID clientId) {
+        return ByteBuffer.allocate(16)
+                .putLong(clientId.getMostSignificantBits())
+                .putLong(clientId.getLeastSignificantBits())
+                .array();
+    }
+
+    private static Order decodeOrder(DataInputStream in) throws IOException {
+        Order order = new Order();
+        order.setClientId(new UUID(in.readLong(), in.readLong()));
+        order.setTimestamp(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC));
+        order.setIsTaxed(in.readBoolean());
+        int lineCount = in.readInt();
+        for (int i = 0; i < lineCount; i++) {
+            int id = in.readInt();
+            String name = in.readUTF();
+            String type = in.readUTF();
+            String category = in.readUTF();
+            long unitPrice = in.readLong();
+            MenuItem item = new MenuItem(id, name, unitPrice, type, category);
+            order.addLine(new OrderLine(item, in.readInt(), unitPrice));
+        }
+        return order;
+    }
+}
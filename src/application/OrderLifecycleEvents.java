@@ -0,0 +1,137 @@
+package application;
+
+import java.util.Objects;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events for each stage of a sale, from the item click to the
+ * receipt and the audit log. A recording of a slow till shows which stage used up
+ * the time, and on which thread:
+ * <pre>
+ * jcmd &lt;pid&gt; JFR.start name=till settings=profile duration=10m filename=till.jfr
+ * jfr print --categories Order till.jfr
+ * </pre>
+ * Callers create an event, {@code begin()} it, do the work and only fill in and commit
+ * the event if {@code shouldCommit()} is true. With recording off that is one flag
+ * check, and the JIT removes the event object altogether.
+ *
+ * @author Musab
+ */
+final class OrderLifecycleEvents {
+
+    private OrderLifecycleEvents() {
+    }
+
+    /**
+     * Fields shared by every stage. An order only gets its database id once it is
+     * saved, so earlier stages are matched to it by the client id.
+     */
+    @Category({ "RestAutomation", "Order" })
+    @StackTrace(false)
+    abstract static class OrderStageEvent extends Event {
+
+        @Label("Order Id")
+        @Description("Database id of the order, 0 if it is not saved yet")
+        int orderId;
+
+        @Label("Client Id")
+        @Description("Id the till gave the order when it was placed, null for orders saved before client ids")
+        String clientId;
+
+        @Label("Item Count")
+        @Description("Items in the cart or order, counting quantities")
+        int itemCount;
+
+        /** Fills in the order fields. */
+        void setOrder(Order order) {
+            orderId = order.getId();
+            clientId = Objects.toString(order.getClientId(), null);
+            itemCount = order.getItemCount();
+        }
+    }
+
+    /** Handling a click on a menu item, from the cart update to the relabelled order summary. */
+    @Name("application.ItemClick")
+    @Label("Item Click")
+    static final class ItemClick extends OrderStageEvent {
+
+        @Label("Menu Item Id")
+        int menuItemId;
+    }
+
+    /** Adding an item to the cart and updating its line in the order summary. */
+    @Name("application.CartUpdate")
+    @Label("Cart Update")
+    static final class CartUpdate extends OrderStageEvent {
+
+        @Label("Menu Item Id")
+        int menuItemId;
+
+        @Label("Line Quantity")
+        int quantity;
+    }
+
+    /** The place-order confirmation dialog, from opening it to closing it, user time included. */
+    @Name("application.ConfirmationDialog")
+    @Label("Confirmation Dialog")
+    static final class ConfirmationDialog extends OrderStageEvent {
+
+        @Label("Confirmed")
+        boolean confirmed;
+    }
+
+    /** The OrderDAO.saveOrder transaction, on the commit worker. */
+    @Name("application.SaveOrder")
+    @Label("Save Order")
+    static final class SaveOrder extends OrderStageEvent {
+
+        @Label("Saved")
+        @Description("False if the transaction failed and the order will be retried")
+        boolean saved;
+    }
+
+    /** Loading the orders saved since the last refresh into today's orders. */
+    @Name("application.TodaysOrdersRefresh")
+    @Label("Today's Orders Refresh")
+    @Description("Order Id is the newest order loaded, 0 if none were; Item Count counts the items of all loaded orders")
+    static final class TodaysOrdersRefresh extends OrderStageEvent {
+
+        @Label("Orders Loaded")
+        int orderCount;
+    }
+
+    /** Printing one receipt on the spooler thread, retries included. */
+    @Name("application.ReceiptPrint")
+    @Label("Receipt Print")
+    static final class ReceiptPrint extends OrderStageEvent {
+
+        @Label("Attempts")
+        int attempts;
+
+        @Label("Printed")
+        boolean printed;
+    }
+
+    /** Writing one batch of audit log entries, retries included. Not tied to a single order. */
+    @Name("application.AuditLogWrite")
+    @Label("Audit Log Write")
+    @Category({ "RestAutomation", "Audit Log" })
+    @StackTrace(false)
+    static final class AuditLogWrite extends Event {
+
+        @Label("Entries")
+        int entryCount;
+
+        @Label("Attempts")
+        int attempts;
+
+        @Label("Written")
+        boolean written;
+    }
+}
@@ -0,0 +1,57 @@
+package application;
+
+/**
+ * One line of an order: a menu item, how many were sold and the unit price charged.
+ *
+ * @author Musab
+ */
+public class OrderLine {
+    private final MenuItem item;
+    private int quantity;
+    /** Unit price in santim. */
+    private final long unitPrice;
+
+    public OrderLine(MenuItem item, int quantity, long unitPrice) {
+        this.item = item;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+    }
+
+    public OrderLine(MenuItem item, int quantity) {
+        this(item, quantity, item.getPrice());
+    }
+
+    public MenuItem getItem() {
+        return item;
+    }
+
+    public int getMenuItemId() {
+        return item.getId();
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public long getUnitPrice() {
+        return unitPrice;
+    }
+
+    /**
+     * Returns the price of the whole line.
+     *
+     * @return unit price times quantity, in santim
+     */
+    public long getLineTotal() {
+        return unitPrice * quantity;
+    }
+
+    /**
+     * Adds units to this line.
+     *
+     * @param count units to add
+     */
+    void addQuantity(int count) {
+        quantity += count;
+    }
+}
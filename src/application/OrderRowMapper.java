@@ -0,0 +1,103 @@
+package application;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Maps the joined order/item rows of the order queries into orders, one line per row.
+ * Queries select {@link #COLUMNS} and sort by order id, so the rows of an order are
+ * adjacent: each order is created once, from its first row, and later rows only add
+ * lines. Columns are read by index, the price arrives as whole santim so no BigDecimal
+ * is built per row, and lines share the catalog's MenuItem instances. The price is the
+ * one stored with the line, so a line sold before a menu price edit gets an item of its own.
+ *
+ * @author Musab
+ */
+final class OrderRowMapper {
+
+    /**
+     * Select list read by the mapper, by position. Queries join orders o,
+     * order_items oi and menu_items m and must order the rows by o.id.
+     */
+    static final String COLUMNS =
+            "o.id, o.timestamp, o.taxed, o.client_uuid, m.id, m.name, m.category,"
+            + " CAST(ROUND(COALESCE(oi.unit_price, m.price) * 100) AS SIGNED), oi.quantity";
+
+    private static final int ORDER_ID = 1;
+    private static final int TIMESTAMP = 2;
+    private static final int TAXED = 3;
+    private static final int CLIENT_UUID = 4;
+    private static final int MENU_ID = 5;
+    private static final int NAME = 6;
+    private static final int CATEGORY = 7;
+    private static final int PRICE_SANTIM = 8;
+    private static final int QUANTITY = 9;
+
+    /** Lines allocated up front per order; most orders have a handful. */
+    private static final int LINES_PER_ORDER = 4;
+
+    private final MenuCatalog catalog;
+
+    /** Items missing from the catalog or priced differently, shared by every row that sells them. */
+    private final Map<Integer, MenuItem> uncataloged = new HashMap<>();
+
+    /** One instance of each category name read from uncataloged rows. */
+    private final Map<String, String> categories = new HashMap<>();
+
+    /**
+     * @param catalog source of shared menu items; MenuCatalog.EMPTY to build them from the rows
+     */
+    OrderRowMapper(MenuCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * Maps every remaining row and appends the orders to a list, in row order.
+     *
+     * @param rs rows with {@link #COLUMNS}, sorted by order id
+     * @param orders list receiving the orders
+     * @throws SQLException if reading a row fails
+     */
+    void mapInto(ResultSet rs, List<Order> orders) throws SQLException {
+        Order order = null;
+        while (rs.next()) {
+            int orderId = rs.getInt(ORDER_ID);
+            if (order == null || order.getId() != orderId) {
+                String clientId = rs.getString(CLIENT_UUID);
+                order = new Order(orderId, rs.getTimestamp(TIMESTAMP).toLocalDateTime(), rs.getBoolean(TAXED),
+                        clientId == null ? null : UUID.fromString(clientId), LINES_PER_ORDER);
+                orders.add(order);
+            }
+            order.addLine(new OrderLine(item(rs), rs.getInt(QUANTITY)));
+        }
+    }
+
+    /**
+     * Returns the menu item of the current row: the catalog's instance if its price matches,
+     * otherwise one built from the row and shared with later rows of the same item.
+     */
+    private MenuItem item(ResultSet rs) throws SQLException {
+        int menuId = rs.getInt(MENU_ID);
+        long price = rs.getLong(PRICE_SANTIM);
+        MenuItem item = catalog.getItem(menuId);
+        if (item != null && item.getPrice() == price) {
+            return item;
+        }
+
+        // Not in the cached menu, or the cache has not caught up with an edit yet
+        item = uncataloged.get(menuId);
+        if (item == null || item.getPrice() != price) {
+            String category = rs.getString(CATEGORY);
+            if (category != null) {
+                category = categories.computeIfAbsent(category, c -> c);
+            }
+            item = new MenuItem(menuId, rs.getString(NAME), price, category, category);
+            uncataloged.put(menuId, item);
+        }
+        return item;
+    }
+}
@@ -0,0 +1,217 @@
+package application;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * In-memory inverted index over the order history: item name words to order ids,
+ * plus order date to order ids.
+ * Backfilled once from the database and then kept current as orders are saved,
+ * so searching "which orders had Special Kitfo" never touches MySQL.
+ * Words are matched by prefix and work for Ge'ez as well as Latin item names.
+ *
+ * @author Musab
+ */
+public class OrderSearchIndex {
+
+    /** Order ids per normalized item name word, kept sorted for prefix lookups. */
+    private final NavigableMap<String, Postings> ordersByWord = new TreeMap<>();
+
+    /** Order ids per order date. */
+    private final NavigableMap<LocalDate, Postings> ordersByDate = new TreeMap<>();
+
+    /** Orders already indexed, so a replayed order is not indexed twice. */
+    private final BitSet indexedOrders = new BitSet();
+
+    /**
+     * Indexes one item of an order. Called once per order line during backfill.
+     *
+     * @param orderId the order id
+     * @param date the order date
+     * @param itemName the item name
+     */
+    public synchronized void addItem(int orderId, LocalDate date, String itemName) {
+        ordersByDate.computeIfAbsent(date, _ -> new Postings()).add(orderId);
+        for (String word : words(itemName)) {
+            ordersByWord.computeIfAbsent(word, _ -> new Postings()).add(orderId);
+        }
+        indexedOrders.set(orderId);
+    }
+
+    /**
+     * Indexes a saved order and its items.
+     *
+     * @param order the saved order, with its id set
+     */
+    public synchronized void add(Order order) {
+        if (indexedOrders.get(order.getId())) {
+            return;
+        }
+        LocalDate date = order.getTimestamp().toLocalDate();
+        for (OrderLine line : order.getLines()) {
+            addItem(order.getId(), date, line.getItem().getName());
+        }
+    }
+
+    /**
+     * Finds orders matching every word of the query.
+     * Each word matches item name words starting with it; words made of digits
+     * and dashes match order dates starting with them (e.g. "2025-04").
+     *
+     * @param query the search text
+     * @param limit maximum number of order ids to return
+     * @return matching order ids, newest first, and the total number of matches
+     */
+    public synchronized SearchResult search(String query, int limit) {
+        BitSet matches = null;
+        for (String word : words(query)) {
+            BitSet wordMatches = isDatePrefix(word) ? matchDates(word) : matchWords(word);
+            if (matches == null) {
+                matches = wordMatches;
+            } else {
+                matches.and(wordMatches);
+            }
+            if (matches.isEmpty()) {
+                break;
+            }
+        }
+        if (matches == null) {
+            return new SearchResult(new int[0], 0);
+        }
+
+        int total = matches.cardinality();
+        int[] ids = new int[Math.min(limit, total)];
+        int n = 0;
+        for (int id = matches.length() - 1; id >= 0 && n < ids.length; id = matches.previousSetBit(id - 1)) {
+            ids[n++] = id;
+        }
+        return new SearchResult(ids, total);
+    }
+
+    /**
+     * Returns the number of indexed orders.
+     *
+     * @return indexed order count
+     */
+    public synchronized int size() {
+        return indexedOrders.cardinality();
+    }
+
+    private BitSet matchWords(String prefix) {
+        BitSet result = new BitSet();
+        for (Postings postings : ordersByWord.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            postings.addTo(result);
+        }
+        return result;
+    }
+
+    private BitSet matchDates(String prefix) {
+        BitSet result = new BitSet();
+        for (Map.Entry<LocalDate, Postings> entry : ordersByDate.entrySet()) {
+            if (entry.getKey().toString().startsWith(prefix)) {
+                entry.getValue().addTo(result);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isDatePrefix(String word) {
+        if (word.isEmpty() || !Character.isDigit(word.charAt(0))) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c != '-' && !(c >= '0' && c <= '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Splits text into lower-cased, NFC-normalized words. Dashes between digits are
+     * kept so dates stay one word; Ethiopic letters and their combining marks are word
+     * characters, while the Ethiopic word space and other punctuation separate words.
+     */
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i < normalized.length(); ) {
+            int cp = normalized.codePointAt(i);
+            boolean wordChar = Character.isLetterOrDigit(cp)
+                    || Character.getType(cp) == Character.NON_SPACING_MARK
+                    || (cp == '-' && start >= 0 && Character.isDigit(normalized.codePointBefore(i)));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+            i += Character.charCount(cp);
+        }
+        if (start >= 0) {
+            words.add(normalized.substring(start));
+        }
+        return words;
+    }
+
+    /**
+     * Result of a search.
+     *
+     * @param orderIds matching order ids, newest first, up to the requested limit
+     * @param totalMatches number of matching orders
+     */
+    public record SearchResult(int[] orderIds, int totalMatches) {
+    }
+
+    /**
+     * Sorted, duplicate-free list of order ids. Ids normally arrive in increasing
+     * order, so adding is an append.
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int pos = Arrays.binarySearch(ids, 0, size, id);
+                if (pos >= 0) {
+                    return;
+                }
+                insertAt(-pos - 1, id);
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        void addTo(BitSet set) {
+            for (int i = 0; i < size; i++) {
+                set.set(ids[i]);
+            }
+        }
+
+        private void insertAt(int index, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package application;
+
+import java.util.List;
+
+import javafx.geometry.Insets;
+import javafx.print.Printer;
+import javafx.print.PrinterJob;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+
+/**
+ * Prints receipts on the default printer without showing a print dialog.
+ * The page is built off the FX thread; it is never attached to a scene, which
+ * JavaFX allows for printing from a background thread.
+ *
+ * @author Musab
+ */
+public class PrinterReceiptSink implements ReceiptSink {
+
+    private final Font font;
+
+    /**
+     * Creates the sink.
+     *
+     * @param font font for the item lines, which may contain Ge'ez
+     */
+    public PrinterReceiptSink(Font font) {
+        this.font = font;
+    }
+
+    @Override
+    public void print(Receipt receipt, List<String> lines) throws Exception {
+        Printer printer = Printer.getDefaultPrinter();
+        if (printer == null) {
+            throw new IllegalStateException("No default printer");
+        }
+        PrinterJob job = PrinterJob.createPrinterJob(printer);
+        if (job == null) {
+            throw new IllegalStateException("Could not start a print job on " + printer.getName());
+        }
+
+        VBox page = new VBox(5);
+        page.setPadding(new Insets(10));
+        for (int i = 0; i < lines.size(); i++) {
+            Label label = new Label(lines.get(i));
+            if (i == lines.size() - 1) {
+                label.setStyle("-fx-font-weight: bold;");
+            } else {
+                label.setFont(font);
+            }
+            page.getChildren().add(label);
+        }
+
+        if (!job.printPage(page)) {
+            job.cancelJob();
+            throw new IllegalStateException("Printing failed on " + printer.getName());
+        }
+        if (!job.endJob()) {
+            throw new IllegalStateException("Print job did not finish on " + printer.getName());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package application;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of what a customer's receipt shows.
+ * Built on the FX thread when an order is placed and printed later by the spooler,
+ * so it holds plain values and no reference to the order or its menu items.
+ *
+ * @param time when the order was placed
+ * @param lines the receipt lines
+ * @param total order total in santim
+ * @param taxed true if the order is taxed
+ * @param clientId client id of the order, to match the receipt with it in recordings;
+ *        null for an order saved before client ids
+ *
+ * @author Musab
+ */
+public record Receipt(LocalDateTime time, List<Line> lines, long total, boolean taxed, UUID clientId) {
+
+    public Receipt {
+        lines = List.copyOf(lines);
+    }
+
+    /**
+     * Builds the receipt for a placed order.
+     *
+     * @param order the order
+     * @return the receipt
+     */
+    public static Receipt of(Order order) {
+        List<Line> lines = new ArrayList<>(order.getLines().size());
+        for (OrderLine line : order.getLines()) {
+            lines.add(new Line(line.getItem().getName(), line.getQuantity(), line.getUnitPrice(), line.getLineTotal()));
+        }
+        return new Receipt(order.getTimestamp(), lines, order.getTotal(), order.getIsTaxed(), order.getClientId());
+    }
+
+    /**
+     * Counts the items on the receipt.
+     *
+     * @return the sum of the line quantities
+     */
+    public int getItemCount() {
+        int count = 0;
+        for (Line line : lines) {
+            count += line.quantity();
+        }
+        return count;
+    }
+
+    /**
+     * One item line of a receipt.
+     *
+     * @param name item name
+     * @param quantity units sold
+     * @param unitPrice unit price in santim
+     * @param lineTotal line total in santim
+     */
+    public record Line(String name, int quantity, long unitPrice, long lineTotal) {
+    }
+}
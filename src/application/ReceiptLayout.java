@@ -0,0 +1,55 @@
+package application;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns a {@link Receipt} into the text lines that are printed.
+ * The formatter and fixed labels are built once and shared by every receipt.
+ * The last rendered line is always the total.
+ *
+ * @author Musab
+ */
+public final class ReceiptLayout {
+
+    /** Layout used by the application. */
+    public static final ReceiptLayout DEFAULT = new ReceiptLayout(DateTimeFormatter.ofPattern("dd - MM - yyyy"));
+
+    private final DateTimeFormatter dateFormat;
+
+    /**
+     * Creates a layout.
+     *
+     * @param dateFormat format of the date line
+     */
+    public ReceiptLayout(DateTimeFormatter dateFormat) {
+        this.dateFormat = dateFormat;
+    }
+
+    /**
+     * Renders a receipt.
+     *
+     * @param receipt the receipt
+     * @return the printed lines, date first and total last
+     */
+    public List<String> render(Receipt receipt) {
+        List<String> lines = new ArrayList<>(receipt.lines().size() + 2);
+        lines.add("Date: " + dateFormat.format(receipt.time()));
+
+        StringBuilder sb = new StringBuilder(64);
+        for (Receipt.Line line : receipt.lines()) {
+            sb.setLength(0);
+            sb.append(line.name()).append(" | x").append(line.quantity()).append(" | ");
+            Money.appendTo(sb, line.unitPrice()).append(" x ").append(line.quantity()).append(" = Br");
+            Money.appendTo(sb, line.lineTotal());
+            lines.add(sb.toString());
+        }
+
+        sb.setLength(0);
+        sb.append("Total Price: ");
+        Money.appendTo(sb, receipt.total()).append(" Br");
+        lines.add(sb.toString());
+        return lines;
+    }
+}
@@ -0,0 +1,21 @@
+package application;
+
+import java.util.List;
+
+/**
+ * Destination for rendered receipts, such as a printer or a file.
+ *
+ * @author Musab
+ */
+@FunctionalInterface
+public interface ReceiptSink {
+
+    /**
+     * Prints one receipt. Called on the spooler thread.
+     *
+     * @param receipt the receipt being printed
+     * @param lines the rendered lines, total last
+     * @throws Exception if the receipt could not be printed; the spooler retries it
+     */
+    void print(Receipt receipt, List<String> lines) throws Exception;
+}
@@ -0,0 +1,106 @@
+package application;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Print spooler that prints receipts on a background thread, so placing an
+ * order never waits on the printer.
+ * Receipts are printed one at a time in the order they were submitted. A receipt
+ * that fails is retried a few times with backoff before it is reported as failed.
+ *
+ * @author Musab
+ */
+public class ReceiptSpooler extends WorkerQueue<Receipt> {
+
+    /** Receipts that may wait for the printer before new ones are refused. */
+    private static final int CAPACITY = 100;
+
+    /** Attempts per receipt before it is given up. */
+    private static final int MAX_ATTEMPTS = 4;
+
+    private static final long INITIAL_RETRY_DELAY_MILLIS = 1_000;
+
+    /**
+     * Receives print results. Callbacks run on the spooler thread, except for receipts
+     * still queued at shutdown, which are reported on the thread calling shutdown.
+     */
+    public interface Listener {
+
+        /**
+         * Called after a receipt has been printed.
+         *
+         * @param receipt the printed receipt
+         */
+        void printed(Receipt receipt);
+
+        /**
+         * Called when a receipt could not be printed.
+         *
+         * @param receipt the receipt
+         * @param cause the last error, or null if the spooler shut down first
+         */
+        void failed(Receipt receipt, Exception cause);
+    }
+
+    private final ReceiptSink sink;
+    private final ReceiptLayout layout;
+    private final Listener listener;
+
+    /**
+     * Creates the spooler. Receipts are printed once {@link #start()} is called.
+     *
+     * @param sink where receipts are printed
+     * @param layout layout the receipts are rendered with
+     * @param listener receives print results
+     */
+    public ReceiptSpooler(ReceiptSink sink, ReceiptLayout layout, Listener listener) {
+        super("receipt-spooler", CAPACITY, INITIAL_RETRY_DELAY_MILLIS);
+        this.sink = sink;
+        this.layout = layout;
+        this.listener = listener;
+    }
+
+    @Override
+    protected void abandon(Receipt receipt) {
+        listener.failed(receipt, null);
+    }
+
+    @Override
+    protected void process(Receipt receipt) {
+        OrderLifecycleEvents.ReceiptPrint event = new OrderLifecycleEvents.ReceiptPrint();
+        event.begin();
+        List<String> lines = layout.render(receipt);
+        long delay = INITIAL_RETRY_DELAY_MILLIS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                sink.print(receipt, lines);
+            } catch (Exception e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    commit(event, receipt, attempt, false);
+                    failed();
+                    listener.failed(receipt, e);
+                    return;
+                }
+                backOff(delay);
+                delay *= 2;
+                continue;
+            }
+            // Outside the try: a listener that throws must not get the receipt printed again
+            completed();
+            commit(event, receipt, attempt, true);
+            listener.printed(receipt);
+            return;
+        }
+    }
+
+    private static void commit(OrderLifecycleEvents.ReceiptPrint event, Receipt receipt, int attempts, boolean printed) {
+        if (event.shouldCommit()) {
+            event.clientId = Objects.toString(receipt.clientId(), null);
+            event.itemCount = receipt.getItemCount();
+            event.attempts = attempts;
+            event.printed = printed;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package application;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Sends report emails in the background through a persistent outbox.
+ * Each message is written to the outbox directory before it is sent and deleted once
+ * every recipient has it, so a message survives a failed send or an app restart.
+ * Pending messages are sent in batches over a single SMTP connection, and a batch
+ * that fails is retried with exponential backoff. A recipient the server keeps refusing
+ * is dropped after {@link #MAX_SEND_ATTEMPTS} attempts and reported to the listener.
+ *
+ * @author Musab
+ */
+public class ReportMailer {
+
+    /** Outbox used by the application, relative to the working directory. */
+    public static final Path DEFAULT_OUTBOX = Path.of("outbox");
+
+    private static final long INITIAL_RETRY_DELAY_MILLIS = 30_000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 30 * 60_000;
+
+    /** Attempts at a message the server refused a recipient of, before that recipient is dropped. */
+    static final int MAX_SEND_ATTEMPTS = 10;
+
+    /** Connect, read and write timeout for the SMTP connection. */
+    private static final int SMTP_TIMEOUT_MILLIS = 15_000;
+
+    /** SMTP handshakes, and sends with one message and one row per recipient. */
+    private static final OperationMetrics CONNECT = Metrics.operation("ReportMailer.connect");
+    private static final OperationMetrics SEND_MESSAGE = Metrics.operation("ReportMailer.sendMessage");
+
+    /**
+     * Told about recipients that were given up on. Runs on the mail sender thread.
+     */
+    public interface Listener {
+
+        /**
+         * Called when a recipient is removed from a message without having received it.
+         *
+         * @param recipient the dropped address
+         * @param subject subject of the message
+         * @param reason why the recipient was dropped
+         */
+        void recipientDropped(String recipient, String subject, String reason);
+    }
+
+    private final MailConfig config;
+    private final Path outbox;
+    private final Listener listener;
+    private final Session session;
+    private final ScheduledExecutorService executor;
+
+    // Only touched on the executor thread
+    private long retryDelay = INITIAL_RETRY_DELAY_MILLIS;
+    private ScheduledFuture<?> scheduledRetry;
+
+    /**
+     * Creates the mailer. Nothing is sent until {@link #send} or {@link #flushOutbox()} is called.
+     *
+     * @param config the mail settings
+     * @param outbox directory holding messages not yet sent
+     * @param listener told about recipients that were dropped
+     */
+    public ReportMailer(MailConfig config, Path outbox, Listener listener) {
+        this.config = config;
+        this.outbox = outbox;
+        this.listener = listener;
+
+        Properties props = new Properties();
+        props.put("mail.smtp.host", config.host());
+        props.put("mail.smtp.port", String.valueOf(config.port()));
+        props.put("mail.smtp.auth", String.valueOf(config.requiresAuth()));
+        props.put("mail.smtp.starttls.enable", String.valueOf(config.startTls()));
+        props.put("mail.smtp.connectiontimeout", String.valueOf(SMTP_TIMEOUT_MILLIS));
+        props.put("mail.smtp.timeout", String.valueOf(SMTP_TIMEOUT_MILLIS));
+        props.put("mail.smtp.writetimeout", String.valueOf(SMTP_TIMEOUT_MILLIS));
+        this.session = Session.getInstance(props);
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "mail-sender");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Returns the configured subject for report emails.
+     *
+     * @return the subject
+     */
+    public String getSubject() {
+        return config.subject();
+    }
+
+    /**
+     * Returns the configured report recipients.
+     *
+     * @return recipient addresses
+     */
+    public List<String> getRecipients() {
+        return config.recipients();
+    }
+
+    /**
+     * Queues a report email to every configured recipient and sends it in the background,
+     * together with anything still waiting in the outbox.
+     *
+     * @param subject the subject; null for the configured one
+     * @param body the plain text body
+     * @return completes with true once every recipient has the message, or false if it
+     *         stays in the outbox to be retried; fails if it could not be written to the outbox
+     */
+    public CompletableFuture<Boolean> send(String subject, String body) {
+        return CompletableFuture.supplyAsync(() -> {
+            Path file;
+            try {
+                file = enqueue(subject == null ? config.subject() : subject, body);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+            deliverPending();
+            return !Files.exists(file);
+        }, executor);
+    }
+
+    /**
+     * Sends whatever is waiting in the outbox, for example messages left over from
+     * an earlier run.
+     */
+    public void flushOutbox() {
+        executor.execute(this::deliverPending);
+    }
+
+    /**
+     * Returns the number of messages waiting in the outbox.
+     *
+     * @return pending message count
+     */
+    public int getOutboxSize() {
+        return listOutbox().size();
+    }
+
+    /**
+     * Stops the background sender. Unsent messages stay in the outbox for the next start.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Path enqueue(String subject, String body) throws IOException {
+        Files.createDirectories(outbox);
+        OutboxMessage message = new OutboxMessage(
+                outbox.resolve(System.currentTimeMillis() + "-" + UUID.randomUUID() + ".properties"),
+                subject, body, new ArrayList<>(config.recipients()), 0);
+        message.save();
+        return message.file;
+    }
+
+    /**
+     * Sends every outbox message over one SMTP connection and schedules a retry
+     * if anything is left.
+     */
+    private void deliverPending() {
+        List<OutboxMessage> pending = new ArrayList<>();
+        for (Path file : listOutbox()) {
+            try {
+                pending.add(OutboxMessage.load(file));
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Skipping unreadable outbox message " + file + ": " + e.getMessage());
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        boolean allSent = true;
+        try (Transport transport = session.getTransport("smtp")) {
+            connect(transport);
+            for (OutboxMessage message : pending) {
+                allSent &= deliver(transport, message);
+            }
+        } catch (MessagingException e) {
+            e.printStackTrace();
+            allSent = false;
+        }
+
+        if (allSent) {
+            retryDelay = INITIAL_RETRY_DELAY_MILLIS;
+        } else {
+            scheduleRetry();
+        }
+    }
+
+    /**
+     * Opens the SMTP connection, recording how long the handshake took.
+     *
+     * @throws MessagingException if the server cannot be reached or refuses the login
+     */
+    private void connect(Transport transport) throws MessagingException {
+        CONNECT.time(() -> {
+            if (config.requiresAuth()) {
+                transport.connect(config.host(), config.port(), config.username(), config.password());
+            } else {
+                transport.connect();
+            }
+            return null;
+        }, none -> 0);
+    }
+
+    /**
+     * Sends one message to each of its remaining recipients over an open connection.
+     * If the server refused a recipient, the message's attempts go up; once they reach
+     * {@link #MAX_SEND_ATTEMPTS} the refused recipients are dropped and reported.
+     *
+     * @return true if every recipient has the message and it was removed from the outbox
+     * @throws MessagingException if the connection itself failed
+     */
+    private boolean deliver(Transport transport, OutboxMessage message) throws MessagingException {
+        List<String> remaining = new ArrayList<>(message.recipients);
+        String refusal = null;
+        try {
+            for (String recipient : message.recipients) {
+                InternetAddress address;
+                try {
+                    address = new InternetAddress(recipient, true);
+                } catch (AddressException e) {
+                    drop(recipient, message, "invalid address: " + e.getMessage());
+                    remaining.remove(recipient);
+                    continue;
+                }
+                MimeMessage mime = new MimeMessage(session);
+                mime.setFrom(new InternetAddress(config.from()));
+                mime.setRecipient(Message.RecipientType.TO, address);
+                mime.setSubject(message.subject, StandardCharsets.UTF_8.name());
+                mime.setText(message.body, StandardCharsets.UTF_8.name()); // plain text, not HTML
+                try {
+                    SEND_MESSAGE.time(() -> {
+                        transport.sendMessage(mime, mime.getAllRecipients());
+                        return null;
+                    }, sent -> 1);
+                    remaining.remove(recipient);
+                } catch (SendFailedException e) {
+                    // The server refused this recipient; keep it for the next attempt
+                    System.err.println("Sending report to " + recipient + " failed: " + e.getMessage());
+                    refusal = e.getMessage();
+                }
+            }
+        } finally {
+            if (refusal != null && ++message.attempts >= MAX_SEND_ATTEMPTS) {
+                for (String recipient : remaining) {
+                    drop(recipient, message, "refused " + message.attempts + " times, last: " + refusal);
+                }
+                remaining.clear();
+            }
+            // Record progress even if the connection dropped part way through
+            message.update(remaining);
+        }
+        return remaining.isEmpty();
+    }
+
+    private void drop(String recipient, OutboxMessage message, String reason) {
+        System.err.println("Dropping report recipient " + recipient + ": " + reason);
+        listener.recipientDropped(recipient, message.subject, reason);
+    }
+
+    private void scheduleRetry() {
+        if (scheduledRetry != null && !scheduledRetry.isDone()) {
+            return;
+        }
+        scheduledRetry = executor.schedule(this::deliverPending, retryDelay, TimeUnit.MILLISECONDS);
+        retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MILLIS);
+    }
+
+    private List<Path> listOutbox() {
+        if (!Files.isDirectory(outbox)) {
+            return List.of();
+        }
+        // File names start with the enqueue time, so sorting by name keeps send order
+        try (Stream<Path> files = Files.list(outbox)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".properties")).sorted().toList();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return List.of();
+        }
+    }
+
+    /**
+     * A queued message and the recipients that still need it, stored as a properties file.
+     */
+    private static final class OutboxMessage {
+        private final Path file;
+        private final String subject;
+        private final String body;
+        private final List<String> recipients;
+        private int attempts;
+
+        OutboxMessage(Path file, String subject, String body, List<String> recipients, int attempts) {
+            this.file = file;
+            this.subject = subject;
+            this.body = body;
+            this.recipients = recipients;
+            this.attempts = attempts;
+        }
+
+        static OutboxMessage load(Path file) throws IOException {
+            Properties props = new Properties();
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                props.load(reader);
+            }
+            List<String> recipients = new ArrayList<>();
+            for (String address : props.getProperty("recipients", "").split(",")) {
+                if (!address.isBlank()) {
+                    recipients.add(address.trim());
+                }
+            }
+            return new OutboxMessage(file, props.getProperty("subject", ""), props.getProperty("body", ""),
+                    recipients, Integer.parseInt(props.getProperty("attempts", "0")));
+        }
+
+        /**
+         * Deletes the message once nobody is left to send it to, or saves the remaining
+         * recipients and the attempt count.
+         */
+        void update(List<String> remaining) {
+            try {
+                if (remaining.isEmpty()) {
+                    Files.deleteIfExists(file);
+                } else {
+                    recipients.retainAll(remaining);
+                    save();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        void save() throws IOException {
+            Properties props = new Properties();
+            props.setProperty("subject", subject);
+            props.setProperty("body", body);
+            props.setProperty("recipients", String.join(",", recipients));
+            props.setProperty("attempts", String.valueOf(attempts));
+            // Write to a temporary file first so a crash never leaves a half-written message
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                props.store(writer, null);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+}
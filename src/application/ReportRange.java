@@ -0,0 +1,102 @@
+package application;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * A named, half-open range of days [from, toExclusive) that a sales report covers.
+ *
+ * @param name label shown in the range selector and the report header
+ * @param from first day of the range
+ * @param toExclusive day after the last day of the range
+ *
+ * @author Musab
+ */
+public record ReportRange(String name, LocalDate from, LocalDate toExclusive) {
+
+    /**
+     * A single day.
+     *
+     * @param day the day
+     * @return range covering that day
+     */
+    public static ReportRange day(LocalDate day) {
+        return new ReportRange(day.equals(LocalDate.now()) ? "Today" : day.toString(), day, day.plusDays(1));
+    }
+
+    /**
+     * The Monday-to-Sunday week containing a day.
+     *
+     * @param day a day in the week
+     * @return range covering the week
+     */
+    public static ReportRange week(LocalDate day) {
+        LocalDate monday = day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        return new ReportRange("This Week", monday, monday.plusWeeks(1));
+    }
+
+    /**
+     * The Gregorian month containing a day.
+     *
+     * @param day a day in the month
+     * @return range covering the month
+     */
+    public static ReportRange month(LocalDate day) {
+        LocalDate first = day.withDayOfMonth(1);
+        return new ReportRange("This Month", first, first.plusMonths(1));
+    }
+
+    /**
+     * The Ethiopian month containing a day; Pagume counts as a month of its own.
+     *
+     * @param day a Gregorian day in the month
+     * @return range covering the Ethiopian month
+     */
+    public static ReportRange ethiopianMonth(LocalDate day) {
+        EthiopianCalendarTable table = EthiopianDateUtil.getTable();
+        EthiopianCalendarTable.EthiopianDate date = table.toEthiopian(day);
+        LocalDate first = day.minusDays(date.day() - 1L);
+        LocalDate next = date.month() < 13
+                ? first.plusDays(30)
+                : table.toGregorian(date.year() + 1, 1, 1);
+        return new ReportRange("This Ethiopian Month", first, next);
+    }
+
+    /**
+     * A custom range of whole days.
+     *
+     * @param from first day
+     * @param to last day, inclusive
+     * @return range covering the days
+     */
+    public static ReportRange custom(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Range ends before it starts: " + from + " to " + to);
+        }
+        return new ReportRange("Custom", from, to.plusDays(1));
+    }
+
+    /**
+     * Returns the last day of the range.
+     *
+     * @return the last day, inclusive
+     */
+    public LocalDate lastDay() {
+        return toExclusive.minusDays(1);
+    }
+
+    /**
+     * Returns true if the range is a single day.
+     *
+     * @return true for a one-day range
+     */
+    public boolean isSingleDay() {
+        return from.plusDays(1).equals(toExclusive);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
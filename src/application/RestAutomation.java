@@ -1,9 +1,11 @@
 package application;
 
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.print.PrinterJob;
+import javafx.print.Printer;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
@@ -11,16 +13,23 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.scene.text.TextAlignment;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.file.Path;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Handles user interaction with the RestAutomation POS system.
@@ -29,8 +38,51 @@ import java.util.Optional;
  * @author Musab
  */
 public class RestAutomation extends Application {
-	/** List of all available menu items. */
-    private final List<MenuItem> menuItems = new ArrayList<>();
+	/** How long closing the app waits for queued orders to be saved. */
+	private static final long COMMIT_DRAIN_TIMEOUT_MILLIS = 30_000;
+	
+	/** How long closing the app waits for queued receipts to be printed. */
+	private static final long RECEIPT_DRAIN_TIMEOUT_MILLIS = 10_000;
+	
+	/** Directory receipts are written to when no printer is installed. */
+	private static final Path RECEIPT_DIRECTORY = Path.of("receipts");
+	
+	/** First and longest wait between attempts to reach the database at startup. */
+	private static final long STARTUP_RETRY_DELAY_MILLIS = 2_000;
+	private static final long MAX_STARTUP_RETRY_DELAY_MILLIS = 30_000;
+	
+	/** When each startup phase finished; created with the class so it includes JVM startup. */
+	private static final StartupMetrics STARTUP = new StartupMetrics();
+	
+	/** Command line argument that rebuilds the daily sales summary instead of starting the app. */
+	private static final String REBUILD_SALES_SUMMARY_ARG = "--rebuild-sales-summary";
+	
+	/** How long closing the app waits for queued audit log entries to be written. */
+	private static final long AUDIT_LOG_DRAIN_TIMEOUT_MILLIS = 5_000;
+	
+	/** Days listed per page in the Previous Orders view. */
+	private static final int HISTORY_DAYS_PAGE_SIZE = 30;
+	
+	/** Orders loaded per page when a day is expanded in the Previous Orders view. */
+	private static final int HISTORY_ORDERS_PAGE_SIZE = 50;
+	
+	/** How far back the order search index reaches. */
+	private static final int SEARCH_INDEX_DAYS = 366;
+	
+	/** Pause in typing before the order search runs. */
+	private static final int SEARCH_DEBOUNCE_MILLIS = 250;
+	
+	/** Matching orders loaded for display per search. */
+	private static final int SEARCH_RESULTS_LIMIT = 50;
+	
+	/** Log entries shown per page in the logs view. */
+	private static final int LOGS_PAGE_SIZE = 100;
+	
+	/** DAO for menu item operations. */
+    private final MenuItemDAO menuItemDAO = new MenuItemDAO();
+    
+	/** Cached menu snapshot shared by the order views and the order DAO. */
+    private final MenuCatalogCache menuCatalog = new MenuCatalogCache(menuItemDAO);
     
     /** Font for displaying labels in Geez script. */
     Font geezFont = Font.loadFont("file:resources/fonts/AbyssinicaSIL-Regular.ttf", 16);
@@ -47,25 +99,85 @@ public class RestAutomation extends Application {
     /** List of today's orders loaded from the database. */
     private List<Order> todaysOrders = new ArrayList<>();
     
+    /** Running sales totals of today's orders, used by the daily report. */
+    private final SalesAccumulator todaysSales = new SalesAccumulator();
+    
+    /** Highest order id loaded into todaysOrders; only newer orders are fetched on refresh. */
+    private volatile int lastLoadedOrderId;
+    
+    /** Highest order id read from the startup snapshot; orders above it were saved during this run. */
+    private int snapshotUpTo;
+    
     /** DAO for handling order operations. */
-    private OrderDAO orderDAO = new OrderDAO();
+    private OrderDAO orderDAO = new OrderDAO(menuCatalog);
     
-    /** DAO for menu item operations. */
-    private MenuItemDAO menuItemDAO = new MenuItemDAO();
+    /** Computes sales totals over date ranges. */
+    private final SalesReportEngine salesReportEngine = new SalesReportEngine();
     
     /** DAO for cash operations. */
     private CashDAO cashDAO = new CashDAO();
     
-    /** DAO for logging user actions. */
+    /** DAO for reading the audit log. */
     private final LogDAO logDAO = new LogDAO();
+
+    /**
+     * Writes user actions to the audit log in the background.
+     * Static because {@link #main(String[])} logs the start before JavaFX creates the application instance.
+     */
+    private static final AuditLogAppender AUDIT_LOG = new AuditLogAppender(new LogDAO());
+    
+    /** The current order being placed. */
+    private final Cart cart = new Cart();
+    
+    /** Label showing each cart line in salesBox, keyed by menu item id. */
+    private final Map<Integer, Label> cartLineLabels = new HashMap<>();
+    
+    /** Runs database reads for views, so paging through history never blocks the UI. */
+    private final ExecutorService dbExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "db-reader");
+        t.setDaemon(true);
+        return t;
+    });
+    
+    /** Item name and date index over the last year of orders, for the history search. */
+    private final OrderSearchIndex orderSearchIndex = new OrderSearchIndex();
+    
+    /** Persists placed orders in the background. */
+    private OrderCommitQueue commitQueue;
+    
+    /** Keeps placed orders on disk until they are saved; null if it could not be opened. */
+    private OrderJournal orderJournal;
     
-    /** Items in the current order being placed. */
-    private List<MenuItem> orderItems = new ArrayList<>();
+    /** Feeds journaled orders into the commit queue in placing order; null without a journal. */
+    private JournalReplayer journalReplayer;
     
-    /** Total price of the current order. */
-    private double orderTotalPrice;
+    /** Sends report emails in the background; null if mail.properties could not be loaded. */
+    private ReportMailer reportMailer;
+    
+    /** Prints receipts in the background. */
+    private ReceiptSpooler receiptSpooler;
+    
+    /** Label that shows how many placed orders are still waiting to be saved. */
+    private final Label pendingCommitsLabel = new Label("Pending commits: 0");
+    
+    /** Label that shows how many receipts could not be printed; hidden while there are none. */
+    private final Label receiptStatusLabel = new Label();
+    
+    /** Receipts that failed to print since the status was last cleared. Only used on the FX thread. */
+    private int unprintedReceipts;
     
     
+    /**
+     * Opens pooled database connections in the background while the UI is being built.
+     * The schema migration runs later with the other startup loads, see {@link #loadFromDatabase()}.
+     */
+    @Override
+    public void init() {
+        Thread warmUp = new Thread(DatabaseConnection::warmUp, "db-pool-warmup");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
+
     /**
      * Launches the JavaFX application window and sets up the UI layout.
      *
@@ -77,8 +189,18 @@ public class RestAutomation extends Application {
         BorderPane root = new BorderPane();
         root.setPadding(new Insets(15));
 
-        initializeMenuItems();
-
+        initializeFromSnapshot();
+        commitQueue = new OrderCommitQueue(orderDAO, createCommitListener());
+        openOrderJournal();
+        receiptSpooler = new ReceiptSpooler(createReceiptSink(), ReceiptLayout.DEFAULT, createReceiptListener());
+        receiptSpooler.start();
+        try {
+        	reportMailer = new ReportMailer(MailConfig.load(), ReportMailer.DEFAULT_OUTBOX, (recipient, subject, reason) ->
+        			logAction("Report email \"" + subject + "\" NOT sent to " + recipient + ", recipient dropped: " + reason));
+        	reportMailer.flushOutbox();
+        } catch (IOException | IllegalArgumentException e) {
+        	System.err.println("Report email disabled: " + e.getMessage());
+        }
         VBox menuManagement = createMenuManagementPanel();
         Label firstLabel = new Label("𝖂𝖊𝖑𝖈𝖔𝖒𝖊 𝕿𝖔 𝕽𝖊𝖘𝖙𝕬𝖚𝖙𝖔𝖒𝖆𝖙𝖎𝖔𝖓 𝕬𝖕𝖕");
         firstLabel.setStyle("-fx-font-size: 16px; -fx-text-fill: darkblue; -fx-font-weight: bold;");
@@ -99,18 +221,155 @@ public class RestAutomation extends Application {
         primaryStage.setTitle("RestAutomation App");
         primaryStage.setScene(scene);
         primaryStage.show();
+        STARTUP.mark("ui shown");
+        loadFromDatabase();
     }
     
     /**
-     * Initializes the menu items from the database.
+     * Fills the menu and today's orders from the snapshot of the last run, if there is one,
+     * so the UI is usable before the database has answered.
      */
-	private void initializeMenuItems() {
-    	List<MenuItem> items = menuItemDAO.getAllItems();
-		for (MenuItem item : items) {
-			menuItems.add(item);
+	private void initializeFromSnapshot() {
+		StartupSnapshot snapshot = StartupSnapshot.load(StartupSnapshot.DEFAULT_FILE);
+		if (snapshot != null) {
+			menuCatalog.seed(snapshot.getCatalog());
+			todaysOrders = new ArrayList<>(snapshot.getOrders(LocalDate.now()));
+			todaysSales.reset(todaysOrders);
+			lastLoadedOrderId = highestOrderId(todaysOrders);
+			snapshotUpTo = lastLoadedOrderId;
 		}
-		todaysOrders = orderDAO.getTodayOrders();
+		STARTUP.mark(snapshot != null ? "snapshot loaded" : "no snapshot");
     }
+	
+	/**
+	 * Loads the menu and today's orders from the database in the background.
+	 * Waits for the database to come up and the schema to be migrated, then runs the
+	 * loads in parallel and replaces the snapshot state with their results.
+	 */
+	private void loadFromDatabase() {
+		ExecutorService loader = Executors.newFixedThreadPool(2, r -> {
+			Thread t = new Thread(r, "startup-loader");
+			t.setDaemon(true);
+			return t;
+		});
+		CompletableFuture<SchemaMigrator.Outcome> ready = CompletableFuture.supplyAsync(this::awaitSchema, loader);
+		// Orders placed or replayed meanwhile wait in the queue, so none is refused for a missing column.
+		// If the upgrade failed they stay journaled until a later start gets the schema current.
+		ready.thenAccept(outcome -> {
+			if (outcome == SchemaMigrator.Outcome.CURRENT) {
+				commitQueue.start();
+			}
+		});
+		CompletableFuture<MenuCatalog> menu = ready.thenApplyAsync(_ -> {
+			menuCatalog.refreshIfChanged();
+			STARTUP.mark("menu loaded");
+			return menuCatalog.peek();
+		}, loader);
+		CompletableFuture<List<Order>> orders = ready.thenApplyAsync(_ -> {
+			List<Order> loaded = orderDAO.getTodayOrders();
+			STARTUP.mark("orders loaded");
+			return loaded;
+		}, loader);
+		ready.thenRunAsync(() -> orderDAO.forEachOrderItemSince(
+				LocalDate.now().minusDays(SEARCH_INDEX_DAYS).atStartOfDay(), orderSearchIndex::addItem), dbExecutor);
+
+		menu.thenAcceptBoth(orders, (catalog, loaded) -> Platform.runLater(() -> reconcileStartup(catalog, loaded)))
+				.whenComplete((_, e) -> {
+					loader.shutdown();
+					if (e != null) {
+						e.printStackTrace();
+					}
+				});
+	}
+	
+	/**
+	 * Migrates the schema, retrying with backoff until the database is reachable and no
+	 * other till is migrating it. A step the database refuses is not retried: it is
+	 * reported and loading goes on with the schema as it is. Runs on a startup loader thread.
+	 *
+	 * @return CURRENT, or FAILED if a step was refused
+	 */
+	private SchemaMigrator.Outcome awaitSchema() {
+		SchemaMigrator migrator = new SchemaMigrator();
+		long delay = STARTUP_RETRY_DELAY_MILLIS;
+		SchemaMigrator.Outcome outcome;
+		while ((outcome = migrator.migrate()) == SchemaMigrator.Outcome.UNREACHABLE
+				|| outcome == SchemaMigrator.Outcome.BUSY) {
+			System.err.println((outcome == SchemaMigrator.Outcome.BUSY
+					? "Another till is migrating the database" : "Database not reachable")
+					+ "; retrying in " + delay / 1000 + " s.");
+			try {
+				Thread.sleep(delay);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CancellationException("Startup interrupted");
+			}
+			delay = Math.min(delay * 2, MAX_STARTUP_RETRY_DELAY_MILLIS);
+		}
+		if (outcome == SchemaMigrator.Outcome.FAILED) {
+			String failure = migrator.getFailure();
+			logAction("Database upgrade FAILED: " + failure);
+			Platform.runLater(() -> showAlert(Alert.AlertType.WARNING, "Database Upgrade Failed",
+					failure + "\nOrders are kept on this till and saved once the database is upgraded;"
+							+ " please report this."));
+		}
+		STARTUP.mark("database ready");
+		return outcome;
+	}
+	
+	/**
+	 * Replaces the snapshot state with what was loaded from the database.
+	 * Orders saved during this run after the load query ran are kept; snapshot orders the
+	 * database no longer has are dropped. Then a fresh snapshot is written.
+	 *
+	 * @param catalog the loaded menu
+	 * @param loaded today's orders as loaded from the database
+	 */
+	private void reconcileStartup(MenuCatalog catalog, List<Order> loaded) {
+		int keepAbove = Math.max(highestOrderId(loaded), snapshotUpTo);
+		List<Order> merged = new ArrayList<>(loaded);
+		for (Order order : todaysOrders) {
+			// Refreshes only ever add orders above the snapshot, so these were saved during this run
+			if (order.getId() > keepAbove) {
+				merged.add(order);
+			}
+		}
+		boolean ordersChanged = merged.size() != todaysOrders.size();
+		todaysOrders = merged;
+		todaysSales.reset(todaysOrders);
+		// Not the snapshot's highest id: if the database is behind the snapshot, refreshes must not skip its new orders
+		lastLoadedOrderId = highestOrderId(merged);
+		STARTUP.mark("reconciled");
+
+		logAction("Startup: " + STARTUP + (ordersChanged ? " (snapshot was stale)" : ""));
+		System.out.println("Startup: " + STARTUP);
+		saveSnapshot(new StartupSnapshot(LocalDate.now(), catalog, todaysOrders));
+	}
+	
+	/**
+	 * Writes the snapshot read by the next start on the database reader thread.
+	 *
+	 * @param snapshot the snapshot to write
+	 */
+	private void saveSnapshot(StartupSnapshot snapshot) {
+		dbExecutor.execute(() -> {
+			try {
+				snapshot.save(StartupSnapshot.DEFAULT_FILE);
+			} catch (IOException e) {
+				System.err.println("Could not write the startup snapshot: " + e.getMessage());
+			}
+		});
+	}
+	
+	/**
+	 * Returns the highest order id in a list ordered by id.
+	 *
+	 * @param orders orders, oldest first
+	 * @return the id of the last order, or 0 if there are none
+	 */
+	private static int highestOrderId(List<Order> orders) {
+		return orders.isEmpty() ? 0 : orders.get(orders.size() - 1).getId();
+	}
 
     private VBox createMenuManagementPanel() {
         VBox panel = new VBox(10);
@@ -158,52 +417,58 @@ public class RestAutomation extends Application {
         viewLogsBtn.setPrefWidth(200);
         viewLogsBtn.setOnAction(_ -> showLogsView());
 
+        Button diagnosticsBtn = new Button("Diagnostics");
+        diagnosticsBtn.setPrefWidth(200);
+        diagnosticsBtn.setOnAction(_ -> showDiagnosticsView());
+
         Button undoBtn = new Button("Undo Last Sale");
         undoBtn.setPrefWidth(200);
         undoBtn.setOnAction(_ -> {
-            if (!orderItems.isEmpty()) {
-                // Remove the last item from the actual list
-                MenuItem lastItem = orderItems.remove(orderItems.size() - 1);
-
-                // Update quantity in salesBox
-                int remaining = Collections.frequency(orderItems, lastItem);
-
-                // Find the corresponding label
-                for (int i = 0; i < salesBox.getChildren().size(); i++) {
-                    if (salesBox.getChildren().get(i) instanceof Label label &&
-                        label.getText().startsWith(lastItem.getName())) {
-
-                        if (remaining == 0) {
-                            salesBox.getChildren().remove(i);
-                        } else {
-                            label.setText(lastItem.getName() + " x" + remaining + " - Birr" + String.format("%.2f", lastItem.getPrice() * remaining));
-                            label.setFont(geezFont);
-                        }
-                        break;
-                    }
+            OrderLifecycleEvents.CartUpdate update = new OrderLifecycleEvents.CartUpdate();
+            update.begin();
+            OrderLine line = cart.undo();
+            if (line != null) {
+                if (line.getQuantity() == 0) {
+                    salesBox.getChildren().remove(cartLineLabels.remove(line.getMenuItemId()));
+                } else {
+                    cartLineLabels.get(line.getMenuItemId()).setText(formatCartLine(line));
                 }
-
-                orderTotalPrice -= lastItem.getPrice();
                 updateOrderLabels();
+                if (update.shouldCommit()) {
+                    update.menuItemId = line.getMenuItemId();
+                    update.quantity = line.getQuantity();
+                    update.itemCount = cart.getItemCount();
+                    update.commit();
+                }
             }
         });
         
         orderTotalPriceLabel.setStyle("-fx-font-weight: bold;");
+        pendingCommitsLabel.setStyle("-fx-text-fill: gray;");
+        receiptStatusLabel.setStyle("-fx-text-fill: red; -fx-font-weight: bold;");
+        receiptStatusLabel.setWrapText(true);
+        receiptStatusLabel.setTooltip(new Tooltip("Click to clear once the printer is fixed"));
+        receiptStatusLabel.setOnMouseClicked(_ -> updateReceiptStatusLabel(0, null));
+        updateReceiptStatusLabel(0, null);
 
         
         panel.getChildren().addAll(title, addOrderBtn, viewOrdersBtn, annulOrdersBtn, viewReportBtn, 
-        		sendReportBtn, exportReportBtn, addCashBtn, editCashBtn, previousOrdersBtn, viewLogsBtn, undoBtn, orderTotalPriceLabel);
+        		sendReportBtn, exportReportBtn, addCashBtn, editCashBtn, previousOrdersBtn, viewLogsBtn, diagnosticsBtn, undoBtn, orderTotalPriceLabel,
+        		pendingCommitsLabel, receiptStatusLabel);
 
         return panel;
     }
     
     private void showAddOrderView() {
         TabPane tabPane = new TabPane();
+        MenuCatalog catalog = menuCatalog.get();
+        // Pick up menu edits made on other tills the next time this view opens
+        dbExecutor.execute(menuCatalog::refreshIfChanged);
         
-        Tab foodTab = new Tab("Food", createMenuTabContent("food"));
-        Tab juiceTab = new Tab("Juice", createMenuTabContent("juice"));
-        Tab softDrinkTab = new Tab("Soft Drinks", createMenuTabContent("Soft Drink"));
-        Tab hotDrinkTab = new Tab("Hot Drinks", createMenuTabContent("Hot Drink"));
+        Tab foodTab = new Tab("Food", createMenuTabContent(catalog, "food"));
+        Tab juiceTab = new Tab("Juice", createMenuTabContent(catalog, "juice"));
+        Tab softDrinkTab = new Tab("Soft Drinks", createMenuTabContent(catalog, "Soft Drink"));
+        Tab hotDrinkTab = new Tab("Hot Drinks", createMenuTabContent(catalog, "Hot Drink"));
 
         tabPane.getTabs().addAll(foodTab, juiceTab, softDrinkTab, hotDrinkTab);
         tabPane.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
@@ -266,18 +531,18 @@ public class RestAutomation extends Application {
         cashField.setAlignment(Pos.TOP_CENTER);
         
         Button addItemBtn = new Button("Commit Changes");
-        currentCash.setText("Current cash: " + cashDAO.getTodayCash());
+        currentCash.setText("Current cash: " + Money.format(cashDAO.getTodayCash()));
 
         addItemBtn.setMaxWidth(150);
         addItemBtn.setCenterShape(true);
         addItemBtn.setAlignment(Pos.TOP_CENTER);
         addItemBtn.setOnAction(_ -> {
             try {
-                double amount = Double.parseDouble(cashField.getText());
+                long amount = Money.parse(cashField.getText());
                 cashDAO.updateTodayCash(amount);
                 showAlert(Alert.AlertType.INFORMATION, "Cash Updated", "Today's cash has been updated.");
-                currentCash.setText("Current cash: " + cashDAO.getTodayCash());
-                logAction("User edited cash: " + amount);
+                currentCash.setText("Current cash: " + Money.format(cashDAO.getTodayCash()));
+                logAction("User edited cash: " + Money.format(amount));
             } catch (NumberFormatException ex) {
                 showAlert(Alert.AlertType.ERROR, "Invalid Input", "Please enter a valid number.");
                 logAction("User editing cash FAILED!");
@@ -321,10 +586,10 @@ public class RestAutomation extends Application {
         addCashBtn.setAlignment(Pos.TOP_CENTER);
         addCashBtn.setOnAction(_ -> {
             try {
-                double amount = Double.parseDouble(cashField.getText());
+                long amount = Money.parse(cashField.getText());
                 cashDAO.addCash(amount);
                 showAlert(Alert.AlertType.INFORMATION, "Cash Added", "Today's cash has been recorded.");
-                logAction("User added cash: " + amount);
+                logAction("User added cash: " + Money.format(amount));
             } catch (NumberFormatException ex) {
                 showAlert(Alert.AlertType.ERROR, "Invalid Input", "Please enter a valid number.");
                 logAction("User adding cash FAILED! ");
@@ -344,28 +609,57 @@ public class RestAutomation extends Application {
 	}
 
 	private void sendReports() {
-	    String reportContent = generateFormattedReport();
+	    sendReports(generateFormattedReport(), ReportRange.day(LocalDate.now()));
+	}
 
-	    try {
-	    	SimpleEmailSender emailSender = new SimpleEmailSender();
-	    	emailSender.sendEmail(reportContent);
-	    	String emailList = """
-	    			Email sent to: 1. 
-	    				sururmb@gmail.com
-	    				munirasaid1979@gmail.com""";
-	    	showAlert(Alert.AlertType.INFORMATION, "Email Sent Successful", emailList);
-	    	logAction("User sent reports via email");
-	    } catch (Exception e) {
-	        e.printStackTrace();
-	        logAction("User sending reports via email FAILED!\n" + e.getMessage());
+	/**
+	 * Emails a generated report.
+	 *
+	 * @param reportContent the report text
+	 * @param range the days the report covers
+	 */
+	private void sendReports(String reportContent, ReportRange range) {
+	    if (reportMailer == null) {
+	    	showAlert(Alert.AlertType.ERROR, "Email Not Configured", "Report email is disabled. Check mail.properties.");
+	    	logAction("User sending reports via email FAILED! Mail is not configured.");
+	    	return;
 	    }
+	    String period = range.isSingleDay() ? range.from().toString() : range.from() + " to " + range.lastDay();
+	    String subject = reportMailer.getSubject() + " (" + period + ")";
+	    String emailList = "Email sent to:\n" + String.join("\n", reportMailer.getRecipients());
+
+	    // Sent on the mail thread; the cashier is told how it went when it finishes
+	    reportMailer.send(subject, reportContent).whenComplete((sent, error) -> Platform.runLater(() -> {
+	    	if (error != null) {
+	    		error.printStackTrace();
+	    		showAlert(Alert.AlertType.ERROR, "Email Failed", "The report could not be queued: " + error.getMessage());
+	    		logAction("User sending reports via email FAILED!\n" + error.getMessage());
+	    	} else if (sent) {
+	    		showAlert(Alert.AlertType.INFORMATION, "Email Sent Successful", emailList);
+	    		logAction("User sent reports via email (" + period + ")");
+	    	} else {
+	    		showAlert(Alert.AlertType.WARNING, "Email Queued",
+	    				"The report could not be sent right now. It was saved and will be retried automatically.");
+	    		logAction("User sending reports via email deferred (" + period + "), kept in outbox");
+	    	}
+	    }));
 	}
 
 	private void exportReportsToFile() {
-	    String reportContent = generateFormattedReport();
+	    exportReportsToFile(generateFormattedReport(), ReportRange.day(LocalDate.now()));
+	}
 
+	/**
+	 * Writes a generated report to a text file in the working directory.
+	 *
+	 * @param reportContent the report text
+	 * @param range the days the report covers
+	 */
+	private void exportReportsToFile(String reportContent, ReportRange range) {
 	    try {
-	        String fileName = "Daily_Sales_Report_" + LocalDate.now() + ".txt";
+	        String fileName = range.isSingleDay()
+	        		? "Daily_Sales_Report_" + range.from() + ".txt"
+	        		: "Sales_Report_" + range.from() + "_to_" + range.lastDay() + ".txt";
 	        FileWriter writer = new FileWriter(fileName);
 	        writer.write(reportContent);
 	        writer.close();
@@ -378,116 +672,206 @@ public class RestAutomation extends Application {
 	    }
 	}
 
+	/**
+	 * Shows the sales report for a selectable range of days. Today's report comes from
+	 * the in-memory totals; other ranges are aggregated by MySQL on the background reader.
+	 * The export and email buttons use the range currently shown.
+	 */
 	private void showViewReportView() {
-	    String reportContent = generateFormattedReport();
+	    LocalDate today = LocalDate.now();
+	    ComboBox<ReportRange> rangeBox = new ComboBox<>();
+	    rangeBox.getItems().addAll(ReportRange.day(today), ReportRange.week(today), ReportRange.month(today),
+	    		ReportRange.ethiopianMonth(today), ReportRange.custom(today, today));
+	    rangeBox.getSelectionModel().selectFirst();
 
-	    TextArea reportArea = new TextArea(reportContent);
+	    DatePicker fromPicker = new DatePicker(today);
+	    DatePicker toPicker = new DatePicker(today);
+	    fromPicker.setDisable(true);
+	    toPicker.setDisable(true);
+
+	    Button exportBtn = new Button("Export");
+	    Button emailBtn = new Button("Email");
+
+	    HBox controls = new HBox(10, new Label("Range:"), rangeBox, new Label("From:"), fromPicker,
+	    		new Label("To:"), toPicker, exportBtn, emailBtn);
+	    controls.setAlignment(Pos.CENTER_LEFT);
+	    controls.setPadding(new Insets(0, 0, 10, 0));
+
+	    TextArea reportArea = new TextArea();
 	    reportArea.setEditable(false);
 	    reportArea.setStyle("-fx-font-family: 'monospaced'; -fx-font-size: 14px;");
 	    reportArea.setPrefHeight(500);
 
-	    centerPanel.getChildren().setAll(new ScrollPane(reportArea));
+	    // Range of the report in reportArea; null while a report is loading
+	    ReportRange[] shownRange = { null };
+	    // Only the latest request may fill the text area
+	    int[] generation = { 0 };
+
+	    Runnable loadReport = () -> {
+	    	ReportRange range = rangeBox.getValue();
+	    	if (range.name().equals("Custom")) {
+	    		LocalDate from = fromPicker.getValue();
+	    		LocalDate to = toPicker.getValue();
+	    		if (from == null || to == null || to.isBefore(from)) {
+	    			reportArea.setText("Choose a start date on or before the end date.");
+	    			shownRange[0] = null;
+	    			return;
+	    		}
+	    		range = ReportRange.custom(from, to);
+	    	}
+	    	int requested = ++generation[0];
+	    	exportBtn.setDisable(true);
+	    	emailBtn.setDisable(true);
+	    	if (range.isSingleDay() && range.from().equals(LocalDate.now())) {
+	    		reportArea.setText(generateFormattedReport());
+	    		shownRange[0] = range;
+	    		exportBtn.setDisable(false);
+	    		emailBtn.setDisable(false);
+	    		return;
+	    	}
+	    	reportArea.setText("Loading report...");
+	    	shownRange[0] = null;
+	    	ReportRange loading = range;
+	    	dbExecutor.execute(() -> {
+	    		String content = SalesReportFormatter.format(loading, salesReportEngine.getSales(loading),
+	    				cashDAO.getCash(loading.from(), loading.toExclusive()));
+	    		Platform.runLater(() -> {
+	    			if (requested != generation[0]) {
+	    				return;
+	    			}
+	    			reportArea.setText(content);
+	    			shownRange[0] = loading;
+	    			exportBtn.setDisable(false);
+	    			emailBtn.setDisable(false);
+	    		});
+	    	});
+	    };
+
+	    rangeBox.setOnAction(_ -> {
+	    	boolean custom = rangeBox.getValue().name().equals("Custom");
+	    	fromPicker.setDisable(!custom);
+	    	toPicker.setDisable(!custom);
+	    	loadReport.run();
+	    });
+	    fromPicker.setOnAction(_ -> loadReport.run());
+	    toPicker.setOnAction(_ -> loadReport.run());
+	    exportBtn.setOnAction(_ -> {
+	    	if (shownRange[0] != null) {
+	    		exportReportsToFile(reportArea.getText(), shownRange[0]);
+	    	}
+	    });
+	    emailBtn.setOnAction(_ -> {
+	    	if (shownRange[0] != null) {
+	    		sendReports(reportArea.getText(), shownRange[0]);
+	    	}
+	    });
+
+	    VBox content = new VBox(controls, createOrderExportBar(rangeBox, fromPicker, toPicker), new ScrollPane(reportArea));
+	    content.setPadding(new Insets(10));
+	    centerPanel.getChildren().setAll(content);
+	    loadReport.run();
 	    logAction("User viewed reports");
 	}
 	
 	/**
-     * Logs a user action into the database.
+	 * Creates the controls that export the order lines of the selected range to a file.
+	 * The export streams from the database on its own thread and shows its progress.
+	 *
+	 * @param rangeBox the report range selector
+	 * @param fromPicker start of a custom range
+	 * @param toPicker end of a custom range
+	 * @return the export controls
+	 */
+	private HBox createOrderExportBar(ComboBox<ReportRange> rangeBox, DatePicker fromPicker, DatePicker toPicker) {
+	    ComboBox<OrderExporter.Format> formatBox = new ComboBox<>();
+	    formatBox.getItems().addAll(OrderExporter.Format.values());
+	    formatBox.getSelectionModel().selectFirst();
+	    CheckBox gzipBox = new CheckBox("gzip");
+	    Button exportOrdersBtn = new Button("Export Orders");
+	    Button cancelBtn = new Button("Cancel");
+	    cancelBtn.setDisable(true);
+	    ProgressBar progressBar = new ProgressBar(0);
+	    Label statusLabel = new Label();
+
+	    Thread[] running = { null };
+	    exportOrdersBtn.setOnAction(_ -> {
+	    	ReportRange range = rangeBox.getValue();
+	    	if (range.name().equals("Custom")) {
+	    		if (fromPicker.getValue() == null || toPicker.getValue() == null
+	    				|| toPicker.getValue().isBefore(fromPicker.getValue())) {
+	    			statusLabel.setText("Choose a start date on or before the end date.");
+	    			return;
+	    		}
+	    		range = ReportRange.custom(fromPicker.getValue(), toPicker.getValue());
+	    	}
+	    	OrderExporter.Format format = formatBox.getValue();
+	    	boolean gzip = gzipBox.isSelected();
+	    	Path target = Path.of(OrderExporter.fileName(range, format, gzip));
+	    	ReportRange exported = range;
+
+	    	exportOrdersBtn.setDisable(true);
+	    	cancelBtn.setDisable(false);
+	    	progressBar.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+	    	statusLabel.setText("Exporting...");
+	    	running[0] = new Thread(() -> {
+	    		String status;
+	    		try {
+	    			long orders = new OrderExporter().export(exported, target, format, gzip,
+	    					(written, total) -> Platform.runLater(() -> {
+	    						progressBar.setProgress(total == 0 ? 1 : (double) written / total);
+	    						statusLabel.setText(written + " of " + total + " orders");
+	    					}));
+	    			status = "Exported " + orders + " orders to " + target;
+	    			logAction("Exported orders to file: " + target);
+	    		} catch (InterruptedIOException | ClosedByInterruptException e) {
+	    			// Cancelling during a write closes the file channel instead
+	    			status = "Export cancelled.";
+	    		} catch (IOException e) {
+	    			e.printStackTrace();
+	    			status = "Export failed: " + e.getMessage();
+	    			logAction("Export orders to file FAILED!");
+	    		}
+	    		String finalStatus = status;
+	    		Platform.runLater(() -> {
+	    			statusLabel.setText(finalStatus);
+	    			if (progressBar.getProgress() < 0) {
+	    				progressBar.setProgress(0);
+	    			}
+	    			exportOrdersBtn.setDisable(false);
+	    			cancelBtn.setDisable(true);
+	    		});
+	    	}, "order-export");
+	    	running[0].setDaemon(true);
+	    	running[0].start();
+	    });
+	    cancelBtn.setOnAction(_ -> {
+	    	if (running[0] != null) {
+	    		running[0].interrupt();
+	    	}
+	    });
+
+	    HBox bar = new HBox(10, new Label("Orders:"), formatBox, gzipBox, exportOrdersBtn, cancelBtn, progressBar, statusLabel);
+	    bar.setAlignment(Pos.CENTER_LEFT);
+	    bar.setPadding(new Insets(0, 0, 10, 0));
+	    return bar;
+	}
+
+	/**
+     * Logs a user action into the database without waiting for the insert.
      *
      * @param action the action description
      */
     private void logAction(String action) {
-        logDAO.insertLog(action);
+        AUDIT_LOG.append(action);
     }
 
+	/**
+	 * Builds today's report from the in-memory sales totals.
+	 *
+	 * @return the report text
+	 */
 	private String generateFormattedReport() {
-	    LocalDate today = LocalDate.now();
-	    org.joda.time.LocalDate ethiopianDate = EthiopianDateUtil.toEthiopianDate(today);
-
-	    double foodSales = calculateCategorySales("food");
-	    double juiceSales = calculateCategorySales("juice");
-	    double hotDrinkSales = calculateCategorySales("Hot Drink");
-	    double softDrinkSales = calculateCategorySales("Soft Drink");
-	    
-	    double taxed = getTaxedAmount();    // stub or DB value
-	    double tot = getTotalTax();              // stub or DB value
-	    double hidden = getHiddenAmount();  // stub or DB value
-
-	    double total = foodSales + juiceSales + hotDrinkSales + softDrinkSales;
-	    double total1 = taxed + hidden;
-	    double cash = getCurrentCash(); // fetch actual cash received
-	    double difference = cash - total;
-	    
-	    System.out.println(EthiopianDateUtil.formatEthiopianDate(ethiopianDate));
-	    
-	    return String.format("""
-	        Gregorian Date: %s
-	        Ethiopian Date : %s
-
-	        Food Sales:                 %.2f
-	        Juice Sales:                %.2f
-	        HDS (hot drinks sales):     %.2f
-	        SDS (soft drinks sales):    %.2f
-	        -----------------------------------------
-	        Total:                      %.2f
-	        Total:                      %.2f
-	        Cash:                       %.2f
-	        Difference:                 %.2f
-
-	        Bank 1 (Taxed):             %.2f
-	        TOT :                       %.2f
-	        Bank 2 (Hidden):            %.2f
-	        """,
-	        today.format(DateTimeFormatter.ofPattern("dd - MM - yyyy")),
-	        EthiopianDateUtil.formatEthiopianDate(ethiopianDate),
-	        foodSales, juiceSales, hotDrinkSales, softDrinkSales,
-	        total, total1, cash, difference,
-	        taxed, tot, hidden
-	    );
-	    
-	}
-
-	private double calculateCategorySales(String category) {
-	    return todaysOrders.stream()
-	        .flatMap(order -> order.getOrdersList().stream())
-	        .filter(item -> item.getType().equalsIgnoreCase(category))
-	        .mapToDouble(MenuItem::getPrice)
-	        .sum();
-	}
-
-	private double getCurrentCash() {
-	    return cashDAO.getTodayCash(); // Now pulls from DB
-	}
-
-	private double getTaxedAmount() {
-		double taxedAmount = 0;
-		List<MenuItem> orderMenuItems = new ArrayList<>();
-	    for (Order order : todaysOrders) {
-	    	
-	    	if (order.getIsTaxed()) {
-	    		orderMenuItems = order.getOrdersList();
-	    		for (MenuItem item : orderMenuItems) {
-	    			taxedAmount += item.getPrice();
-	    		}
-	    	}
-	    }
-	    return taxedAmount;
-	}
-
-	private double getTotalTax() {
-		double taxedAmount = getTaxedAmount();
-		double  companyShare = taxedAmount / 1.1;
-		double tot = taxedAmount - companyShare;
-	    return tot;
-	}
-
-	private double getHiddenAmount() {
-		double totalAmount = 0.0;
-		for (Order order : todaysOrders) {
-			for (MenuItem item : order.getOrdersList()) {
-				totalAmount += item.getPrice();
-			}
-		}
-		return totalAmount - getTaxedAmount();
+	    return SalesReportFormatter.format(ReportRange.day(LocalDate.now()), todaysSales, cashDAO.getTodayCash());
 	}
 
 	private void showAlert(Alert.AlertType type, String title, String content) {
@@ -533,8 +917,8 @@ public class RestAutomation extends Application {
 	    VBox itemBox = new VBox(5);
 	    itemBox.setPadding(new Insets(10));
 
-	    for (MenuItem item : order.getOrdersList()) { // assuming getItems() returns a List<MenuItem>
-	        Label itemLabel = new Label(item.getName() + " - Birr" + item.getPrice());
+	    for (OrderLine line : order.getLines()) {
+	        Label itemLabel = new Label(line.getItem().getName() + " x" + line.getQuantity() + " - Birr" + Money.format(line.getLineTotal()));
 	        itemLabel.setFont(geezFont);
 	        itemBox.getChildren().add(itemLabel);
 	    }
@@ -560,9 +944,26 @@ public class RestAutomation extends Application {
 	    }
 	}
 
+	/**
+	 * Takes an order off today's list and deletes it from the database in the background,
+	 * which also takes it out of the sales summary the week, month and custom reports read.
+	 *
+	 * @param order a saved order
+	 */
 	private void annulOrder(Order order) {
-	    todaysOrders.remove(order);
-	    logAction("User Annulled Order: " + order.getId());
+	    if (todaysOrders.remove(order)) {
+	    	todaysSales.remove(order);
+	    }
+	    int orderId = order.getId();
+	    dbExecutor.execute(() -> {
+	    	if (orderDAO.deleteOrder(orderId)) {
+	    		logAction("User Annulled Order: " + orderId);
+	    	} else {
+	    		logAction("User annulling order " + orderId + " FAILED!");
+	    		Platform.runLater(() -> showAlert(Alert.AlertType.ERROR, "Order Not Annulled",
+	    				"Order " + orderId + " could not be deleted from the database and still counts in the reports."));
+	    	}
+	    });
 	}
 
 	private void refreshAnnulOrdersView() {
@@ -593,7 +994,7 @@ public class RestAutomation extends Application {
         return panel;
     }
     
-    private ScrollPane createMenuTabContent(String type) {
+    private ScrollPane createMenuTabContent(MenuCatalog catalog, String type) {
         VBox box = new VBox(10);
         GridPane foodGrid = new GridPane();
         box.setPadding(new Insets(10));
@@ -601,14 +1002,12 @@ public class RestAutomation extends Application {
         
         if (!type.equalsIgnoreCase("food")) {
         	
-        	for (MenuItem item : menuItems) {
-                if (item.getType().equalsIgnoreCase(type)) {
-                    Button btn = new Button(item.getName() + " - Birr" + item.getPrice());
-                    btn.setFont(geezFont);
-                    btn.setMaxWidth(Double.MAX_VALUE);
-                    btn.setOnAction(_ -> handleItemClick(item));
-                    box.getChildren().add(btn);
-                }
+        	for (MenuItem item : catalog.getItemsInCategory(type)) {
+                Button btn = new Button(item.getName() + " - Birr" + Money.format(item.getPrice()));
+                btn.setFont(geezFont);
+                btn.setMaxWidth(Double.MAX_VALUE);
+                btn.setOnAction(_ -> handleItemClick(item));
+                box.getChildren().add(btn);
         	}
         	scrollPane = new ScrollPane(box);
             scrollPane.setFitToWidth(true);
@@ -622,19 +1021,17 @@ public class RestAutomation extends Application {
         	int col = 0;
         	int row = 0;
         	
-        	for (MenuItem item : menuItems) {
-        		if (item.getType().equalsIgnoreCase("food")) {
-        			Button btn = new Button(item.getName() + " - Birr" + item.getPrice());
-        			btn.setFont(geezFont);
-        			btn.setPrefWidth(300);
-        			btn.setOnAction(_ -> handleItemClick(item));
-        			foodGrid.add(btn, col, row);
-        			
-        			col++;
-        			if (col == 3) {
-        				col = 0;
-        				row++;
-        			}
+        	for (MenuItem item : catalog.getItemsInCategory("food")) {
+        		Button btn = new Button(item.getName() + " - Birr" + Money.format(item.getPrice()));
+        		btn.setFont(geezFont);
+        		btn.setPrefWidth(300);
+        		btn.setOnAction(_ -> handleItemClick(item));
+        		foodGrid.add(btn, col, row);
+        		
+        		col++;
+        		if (col == 3) {
+        			col = 0;
+        			row++;
         		}
         	}
         	scrollPane = new ScrollPane(foodGrid);
@@ -647,31 +1044,53 @@ public class RestAutomation extends Application {
 
 
     private void handleItemClick(MenuItem item) {
-        orderItems.add(item);
-        int quantity = Collections.frequency(orderItems, item);
-
-        // Check if the item already exists in salesBox
-        Optional<Label> existingLabel = salesBox.getChildren().stream()
-            .filter(node -> node instanceof Label)
-            .map(node -> (Label) node)
-            .filter(label -> label.getText().contains(item.getName()))
-            .findFirst();
-
-        if (existingLabel.isPresent()) {
-            existingLabel.get().setText(item.getName() + " x" + quantity + " - Birr" + String.format("%.2f", item.getPrice() * quantity));
-            existingLabel.get().setFont(geezFont);
-        } else {
-            Label itemLabel = new Label(item.getName() + " x1 - Birr" + String.format("%.2f", item.getPrice()));
+        OrderLifecycleEvents.ItemClick click = new OrderLifecycleEvents.ItemClick();
+        click.begin();
+        OrderLifecycleEvents.CartUpdate update = new OrderLifecycleEvents.CartUpdate();
+        update.begin();
+
+        OrderLine line = cart.add(item);
+
+        Label itemLabel = cartLineLabels.get(line.getMenuItemId());
+        if (itemLabel == null) {
+            itemLabel = new Label();
             itemLabel.setFont(geezFont);
+            cartLineLabels.put(line.getMenuItemId(), itemLabel);
             salesBox.getChildren().add(itemLabel);
         }
+        itemLabel.setText(formatCartLine(line));
+
+        if (update.shouldCommit()) {
+            update.menuItemId = item.getId();
+            update.quantity = line.getQuantity();
+            update.itemCount = cart.getItemCount();
+            update.commit();
+        }
+
+        updateOrderLabels();
 
-        // Update total order price
-        orderTotalPrice += item.getPrice();
-        orderTotalPriceLabel.setText("Total Order Price: Birr" + String.format("%.2f", orderTotalPrice));
+        if (click.shouldCommit()) {
+            click.menuItemId = item.getId();
+            click.itemCount = cart.getItemCount();
+            click.commit();
+        }
+    }
+
+    /**
+     * Formats a cart line for the current order summary.
+     *
+     * @param line the cart line
+     * @return the line text
+     */
+    private String formatCartLine(OrderLine line) {
+        return line.getItem().getName() + " x" + line.getQuantity() + " - Birr" + Money.format(line.getLineTotal());
     }
 
     private void showPlaceOrderConfirmationDialog() {
+        OrderLifecycleEvents.ConfirmationDialog event = new OrderLifecycleEvents.ConfirmationDialog();
+        event.begin();
+        event.itemCount = cart.getItemCount();
+
         Dialog<Boolean> confirmDialog = new Dialog<>();
         confirmDialog.setTitle("Placing Order");
         confirmDialog.setHeaderText("Is the Order Taxed?");
@@ -680,24 +1099,15 @@ public class RestAutomation extends Application {
         ButtonType placeOrderButtonType = new ButtonType("Place Order", ButtonBar.ButtonData.OK_DONE);
         confirmDialog.getDialogPane().getButtonTypes().addAll(placeOrderButtonType, ButtonType.CANCEL);
 
-        // Aggregate order items
-        Map<MenuItem, Integer> itemQuantities = new HashMap<>();
-        for (MenuItem item : orderItems) {
-            itemQuantities.put(item, itemQuantities.getOrDefault(item, 0) + 1);
-        }
-
         // VBox to hold order items
         VBox itemList = new VBox(5);
         
-        for (Map.Entry<MenuItem, Integer> entry : itemQuantities.entrySet()) {
-            MenuItem item = entry.getKey();
-            int quantity = entry.getValue();
-            Label itemLabel = new Label(item.getName() + " x" + quantity + " - Birr" + String.format("%.2f", item.getPrice() * quantity));
+        for (OrderLine line : cart.getLines()) {
+            Label itemLabel = new Label(formatCartLine(line));
             itemLabel.setFont(geezFont);
             itemList.getChildren().add(itemLabel);
-            orderTotalPrice += item.getPrice() * quantity;
         }
-        Label totalLabel = new Label("Total Price: " + orderTotalPrice);
+        Label totalLabel = new Label("Total Price: " + Money.format(cart.getTotal()));
         totalLabel.setFont(geezFont);
         itemList.getChildren().add(totalLabel);
 
@@ -724,17 +1134,27 @@ public class RestAutomation extends Application {
                 if (isTaxed) {
                 	showTOTBreakdownDialog();
                 }
-                placeOrder(isTaxed);
+                Order placed = placeOrder(isTaxed);
                 
-                //showOrderSummaryDialog(orderTotalPrice, isTaxed);
-                printOrderReceipt(orderTotalPrice);
+                //showOrderSummaryDialog(cart.getTotal(), isTaxed);
+                if (placed != null) {
+                	if (event.isEnabled()) {
+                		event.setOrder(placed);
+                	}
+                	printOrderReceipt(placed);
+                }
                 
                  // Your own method to handle saving the order
                 return true;
             }
             return null;
         });
-        confirmDialog.showAndWait();
+        Optional<Boolean> confirmed = confirmDialog.showAndWait();
+
+        if (event.shouldCommit()) {
+            event.confirmed = confirmed.isPresent();
+            event.commit();
+        }
     }
     
     private void showTOTBreakdownDialog() {
@@ -744,32 +1164,32 @@ public class RestAutomation extends Application {
         VBox content = new VBox(10);
         content.setPadding(new Insets(15));
 
-        double totalCompanyShare = 0.0;
-        double totalTOT = 0.0;
-        double totalOriginal = 0.0;
+        long totalCompanyShare = 0;
+        long totalTOT = 0;
+        long totalOriginal = 0;
 
-        for (MenuItem item : orderItems) {
-            double originalPrice = item.getPrice();
-            double companyShare = originalPrice / 1.1;
-            double tot = originalPrice - companyShare;
+        for (OrderLine line : cart.getLines()) {
+            long originalPrice = line.getLineTotal();
+            long companyShare = Money.companyShare(originalPrice);
+            long tot = originalPrice - companyShare;
 
             totalCompanyShare += companyShare;
             totalTOT += tot;
             totalOriginal += originalPrice;
 
             Label itemBreakdown = new Label(
-                    item.getName() + " | " +
-                    "Company: " + String.format("%.2f", companyShare) + " Br | " +
-                    "TOT: " + String.format("%.2f", tot) + " Br | " +
-                    "Total: " + String.format("%.2f", originalPrice) + " Br"
+                    line.getItem().getName() + " x" + line.getQuantity() + " | " +
+                    "Company: " + Money.format(companyShare) + " Br | " +
+                    "TOT: " + Money.format(tot) + " Br | " +
+                    "Total: " + Money.format(originalPrice) + " Br"
             );
             itemBreakdown.setFont(geezFont);
             content.getChildren().add(itemBreakdown);
         }
 
         Separator separator = new Separator();
-        Label totalBreakdown = new Label("Total Company Share: " + String.format("%.2f", totalCompanyShare) +
-                " Br\nTotal TOT: " + String.format("%.2f", totalTOT) + " Br\nTotal Original Price: " + String.format("%.2f", totalOriginal));
+        Label totalBreakdown = new Label("Total Company Share: " + Money.format(totalCompanyShare) +
+                " Br\nTotal TOT: " + Money.format(totalTOT) + " Br\nTotal Original Price: " + Money.format(totalOriginal));
         totalBreakdown.setStyle("-fx-font-weight: bold;");
 
         content.getChildren().addAll(separator, totalBreakdown);
@@ -779,217 +1199,656 @@ public class RestAutomation extends Application {
         dialog.showAndWait();
     }
     
+    /**
+     * Shows the order history as collapsible days, newest first.
+     * Days are listed a page at a time as the user scrolls, and a day's orders
+     * are only loaded, a page at a time, when the day is expanded.
+     * Typing in the search box switches to matches from the order search index.
+     */
     private void showPreviousOrdersView() {
-        List<Order> allOrders = orderDAO.getAllOrders(); // Assumes this is implemented
-        Map<LocalDate, List<Order>> groupedByDate = new HashMap<>();
-
-        // Group orders by the date portion of the timestamp
-        for (Order order : allOrders) {
-            LocalDate date = order.getTimestamp().toLocalDate(); // Extract date only
-            groupedByDate.computeIfAbsent(date, _ -> new ArrayList<>()).add(order);
-        }
-
         VBox orderGroups = new VBox(15);
         orderGroups.setPadding(new Insets(10));
 
         TextField searchBox = new TextField();
-        searchBox.setPromptText("Search date (e.g. 2024-12-31)");
+        searchBox.setPromptText("Search items or date (e.g. kitfo, 2024-12-31)");
+        searchBox.setFont(geezFont);
         searchBox.setMaxWidth(300);
 
-        for (Map.Entry<LocalDate, List<Order>> entry : groupedByDate.entrySet().stream()
-                .sorted(Map.Entry.<LocalDate, List<Order>>comparingByKey().reversed()).toList()) {
+        Button loadMoreDaysBtn = new Button("Load older days");
+        loadMoreDaysBtn.setVisible(false);
 
-            LocalDate date = entry.getKey();
-            List<Order> orders = entry.getValue();
+        ScrollPane scrollPane = new ScrollPane(new VBox(10, orderGroups, loadMoreDaysBtn));
+        scrollPane.setFitToWidth(true);
 
-            VBox section = new VBox(5);
-            section.setStyle("-fx-border-color: #ccc; -fx-border-width: 0 0 1 0; -fx-background-color: #f8f8f8; -fx-padding: 10;");
+        VBox resultsBox = new VBox(5);
+        resultsBox.setPadding(new Insets(10));
+        ScrollPane resultsPane = new ScrollPane(resultsBox);
+        resultsPane.setFitToWidth(true);
 
-            Label dateLabel = new Label("📅 Date: " + date.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
-            dateLabel.setStyle("-fx-font-weight: bold; -fx-text-fill: darkblue;");
-            section.getChildren().add(dateLabel);
+        VBox wrapper = new VBox(10, searchBox, scrollPane);
+        wrapper.setPadding(new Insets(10));
+        centerPanel.getChildren().setAll(wrapper);
 
-            for (Order o : orders) {
-                Label orderLabel = new Label(o.toString());
-                orderLabel.setFont(geezFont);
-                section.getChildren().add(orderLabel);
-            }
+        // Oldest day listed so far; the next page of days starts before it.
+        LocalDate[] oldestListed = { LocalDate.now().plusDays(1) };
+        boolean[] loading = { false };
 
-            orderGroups.getChildren().add(section);
-        }
+        Runnable loadMoreDays = () -> {
+            if (loading[0]) {
+                return;
+            }
+            loading[0] = true;
+            LocalDate before = oldestListed[0];
+            dbExecutor.execute(() -> {
+                List<OrderDAO.OrderDay> days = orderDAO.getOrderDays(before, HISTORY_DAYS_PAGE_SIZE);
+                Platform.runLater(() -> {
+                    for (OrderDAO.OrderDay day : days) {
+                        orderGroups.getChildren().add(createOrderDaySection(day));
+                    }
+                    if (!days.isEmpty()) {
+                        oldestListed[0] = days.get(days.size() - 1).date();
+                    }
+                    loadMoreDaysBtn.setVisible(days.size() == HISTORY_DAYS_PAGE_SIZE);
+                    loading[0] = false;
+                });
+            });
+        };
 
-        ScrollPane scrollPane = new ScrollPane(orderGroups);
-        scrollPane.setFitToWidth(true);
+        loadMoreDaysBtn.setOnAction(_ -> loadMoreDays.run());
+        scrollPane.vvalueProperty().addListener((_, _, newVal) -> {
+            if (newVal.doubleValue() >= scrollPane.getVmax() * 0.95 && loadMoreDaysBtn.isVisible()) {
+                loadMoreDays.run();
+            }
+        });
+        loadMoreDays.run();
+
+        // 🔍 Search the index once typing pauses, instead of on every keystroke
+        PauseTransition debounce = new PauseTransition(Duration.millis(SEARCH_DEBOUNCE_MILLIS));
+        debounce.setOnFinished(_ -> {
+            String query = searchBox.getText().trim();
+            if (query.isEmpty()) {
+                wrapper.getChildren().set(1, scrollPane);
+            } else {
+                wrapper.getChildren().set(1, resultsPane);
+                showOrderSearchResults(query, resultsBox);
+            }
+        });
+        searchBox.textProperty().addListener((_, _, _) -> debounce.playFromStart());
+    }
 
-        VBox wrapper = new VBox(10, searchBox, scrollPane);
-        wrapper.setPadding(new Insets(10));
-        centerPanel.getChildren().setAll(wrapper);
+    /**
+     * Looks up the query in the order search index and loads the newest matching orders.
+     *
+     * @param query the search text
+     * @param resultsBox box that receives the result labels
+     */
+    private void showOrderSearchResults(String query, VBox resultsBox) {
+        OrderSearchIndex.SearchResult result = orderSearchIndex.search(query, SEARCH_RESULTS_LIMIT);
+
+        Label summary = new Label(result.totalMatches() + " orders match \"" + query + "\""
+                + (result.totalMatches() > result.orderIds().length ? ", showing the newest " + result.orderIds().length : ""));
+        summary.setStyle("-fx-font-weight: bold; -fx-text-fill: darkblue;");
+        summary.setFont(geezFont);
+        resultsBox.getChildren().setAll(summary);
+        resultsBox.setUserData(query);
+
+        dbExecutor.execute(() -> {
+            List<Order> orders = orderDAO.getOrdersByIds(result.orderIds());
+            Platform.runLater(() -> {
+                // A newer search has replaced this one while the orders were loading
+                if (!query.equals(resultsBox.getUserData())) {
+                    return;
+                }
+                for (Order o : orders) {
+                    Label orderLabel = new Label(o.toString());
+                    orderLabel.setFont(geezFont);
+                    resultsBox.getChildren().add(orderLabel);
+                }
+            });
+        });
+    }
 
-        // 🔍 Add search functionality
-        searchBox.textProperty().addListener((_, _, newVal) -> {
-            orderGroups.getChildren().clear();
-
-            groupedByDate.entrySet().stream()
-                .filter(e -> e.getKey().toString().contains(newVal.trim()))
-                .sorted(Map.Entry.<LocalDate, List<Order>>comparingByKey().reversed())
-                .forEach(entry -> {
-                    VBox section = new VBox(5);
-                    section.setStyle("-fx-border-color: #ccc; -fx-border-width: 0 0 1 0; -fx-background-color: #f8f8f8; -fx-padding: 10;");
-                    Label dateLabel = new Label("📅 Date: " + entry.getKey().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
-                    dateLabel.setStyle("-fx-font-weight: bold; -fx-text-fill: darkblue;");
-                    section.getChildren().add(dateLabel);
-
-                    for (Order o : entry.getValue()) {
+    /**
+     * Creates the collapsed section of one history day. Its orders are loaded
+     * the first time it is expanded, and further pages on demand.
+     *
+     * @param day the day and its order count
+     * @return the day section
+     */
+    private TitledPane createOrderDaySection(OrderDAO.OrderDay day) {
+        VBox ordersBox = new VBox(5);
+        ordersBox.setStyle("-fx-background-color: #f8f8f8; -fx-padding: 10;");
+
+        TitledPane section = new TitledPane("📅 Date: " + day.date() + " | E.C. "
+                + EthiopianDateUtil.formatEthiopianDate(day.date()) + " (" + day.orderCount() + " orders)", ordersBox);
+        section.setExpanded(false);
+
+        Button loadMoreOrdersBtn = new Button("Load more orders");
+        // Smallest order id shown so far; the next page starts below it.
+        int[] oldestShown = { Integer.MAX_VALUE };
+        int[] shownCount = { 0 };
+
+        Runnable loadMoreOrders = () -> {
+            loadMoreOrdersBtn.setDisable(true);
+            int before = oldestShown[0];
+            dbExecutor.execute(() -> {
+                List<Order> orders = orderDAO.getOrdersForDay(day.date(), before, HISTORY_ORDERS_PAGE_SIZE);
+                Platform.runLater(() -> {
+                    ordersBox.getChildren().remove(loadMoreOrdersBtn);
+                    for (Order o : orders) {
                         Label orderLabel = new Label(o.toString());
                         orderLabel.setFont(geezFont);
-                        section.getChildren().add(orderLabel);
+                        ordersBox.getChildren().add(orderLabel);
+                        oldestShown[0] = Math.min(oldestShown[0], o.getId());
+                    }
+                    shownCount[0] += orders.size();
+                    if (orders.size() == HISTORY_ORDERS_PAGE_SIZE && shownCount[0] < day.orderCount()) {
+                        loadMoreOrdersBtn.setDisable(false);
+                        ordersBox.getChildren().add(loadMoreOrdersBtn);
                     }
-                    orderGroups.getChildren().add(section);
                 });
+            });
+        };
+
+        loadMoreOrdersBtn.setOnAction(_ -> loadMoreOrders.run());
+        section.expandedProperty().addListener((_, _, expanded) -> {
+            if (expanded && shownCount[0] == 0) {
+                loadMoreOrders.run();
+            }
         });
+        return section;
     }
-    
-    private void showLogsView() {
-        List<LogEntry> allLogs = logDAO.getAllLogs();
-        Map<LocalDate, List<LogEntry>> logsByDate = new HashMap<>();
-
-        for (LogEntry log : allLogs) {
-            LocalDate date = log.getTimeStamp().toLocalDate();
-            logsByDate.computeIfAbsent(date, _ -> new ArrayList<>()).add(log);
-        }
 
+    /**
+     * Shows the audit log a page at a time. Date range and text filters are
+     * applied by the database, so only the displayed page is ever loaded.
+     */
+    private void showLogsView() {
         VBox logsContainer = new VBox(15);
         logsContainer.setPadding(new Insets(10));
 
         TextField searchBox = new TextField();
-        searchBox.setPromptText("Search date (e.g. 2024-12-31)");
+        searchBox.setPromptText("Search actions (e.g. cash)");
         searchBox.setMaxWidth(300);
 
-        for (Map.Entry<LocalDate, List<LogEntry>> entry : logsByDate.entrySet().stream()
-                .sorted(Map.Entry.<LocalDate, List<LogEntry>>comparingByKey().reversed()).toList()) {
+        DatePicker fromPicker = new DatePicker();
+        fromPicker.setPromptText("From");
+        DatePicker toPicker = new DatePicker();
+        toPicker.setPromptText("To");
 
-            VBox dayBox = new VBox(5);
-            dayBox.setStyle("-fx-background-color: #f2f2f2; -fx-border-color: #ddd; -fx-border-width: 0 0 1 0; -fx-padding: 10;");
+        Button prevPageBtn = new Button("◀ Newer");
+        Button nextPageBtn = new Button("Older ▶");
+        Label pageLabel = new Label();
 
-            Label dateLabel = new Label("🗓️ Date: " + entry.getKey());
-            dateLabel.setStyle("-fx-font-weight: bold; -fx-text-fill: #444;");
-            dayBox.getChildren().add(dateLabel);
-
-            for (LogEntry log : entry.getValue()) {
-                Label logLabel = new Label(log.getTimeStamp().toLocalTime() + " — " + log.getAction());
-                logLabel.setFont(geezFont);
-                dayBox.getChildren().add(logLabel);
-            }
-
-            logsContainer.getChildren().add(dayBox);
-        }
+        HBox filters = new HBox(10, searchBox, fromPicker, toPicker);
+        filters.setAlignment(Pos.CENTER_LEFT);
+        HBox paging = new HBox(10, prevPageBtn, pageLabel, nextPageBtn);
+        paging.setAlignment(Pos.CENTER_LEFT);
 
         ScrollPane scrollPane = new ScrollPane(logsContainer);
         scrollPane.setFitToWidth(true);
 
-        VBox wrapper = new VBox(10, searchBox, scrollPane);
+        VBox wrapper = new VBox(10, filters, paging, scrollPane);
         wrapper.setPadding(new Insets(10));
         centerPanel.getChildren().setAll(wrapper);
         logAction("User viewed logs");
-        // 🔍 Filter logs by date
-        searchBox.textProperty().addListener((_, _, newVal) -> {
-            logsContainer.getChildren().clear();
-            logsByDate.entrySet().stream()
-                .filter(e -> e.getKey().toString().contains(newVal.trim()))
-                .sorted(Map.Entry.<LocalDate, List<LogEntry>>comparingByKey().reversed())
-                .forEach(entry -> {
-                    VBox dayBox = new VBox(5);
-                    dayBox.setStyle("-fx-background-color: #f2f2f2; -fx-border-color: #ddd; -fx-border-width: 0 0 1 0; -fx-padding: 10;");
-                    Label dateLabel = new Label("🗓️ Date: " + entry.getKey());
-                    dateLabel.setStyle("-fx-font-weight: bold; -fx-text-fill: #444;");
-                    dayBox.getChildren().add(dateLabel);
-                    for (LogEntry log : entry.getValue()) {
-                        Label logLabel = new Label(log.getTimeStamp().toLocalTime() + " — " + log.getAction());
-                        logLabel.setFont(geezFont);
-                        dayBox.getChildren().add(logLabel);
+
+        int[] page = { 0 };
+        // Bumped on every reload, so a slow page can't overwrite a newer one
+        int[] generation = { 0 };
+
+        Runnable loadPage = () -> {
+            LocalDateTime from = fromPicker.getValue() == null ? null : fromPicker.getValue().atStartOfDay();
+            LocalDateTime to = toPicker.getValue() == null ? null : toPicker.getValue().plusDays(1).atStartOfDay();
+            String text = searchBox.getText();
+            int offset = page[0] * LOGS_PAGE_SIZE;
+            int requested = ++generation[0];
+            prevPageBtn.setDisable(true);
+            nextPageBtn.setDisable(true);
+
+            dbExecutor.execute(() -> {
+                int total = logDAO.countLogs(from, to, text);
+                List<LogEntry> logs = logDAO.getLogs(from, to, text, LOGS_PAGE_SIZE, offset);
+                Platform.runLater(() -> {
+                    if (requested != generation[0]) {
+                        return;
                     }
-                    logsContainer.getChildren().add(dayBox);
+                    logsContainer.getChildren().setAll(createLogDayBoxes(logs));
+                    int pages = Math.max(1, (total + LOGS_PAGE_SIZE - 1) / LOGS_PAGE_SIZE);
+                    pageLabel.setText("Page " + (page[0] + 1) + " of " + pages + " (" + total + " entries)");
+                    prevPageBtn.setDisable(page[0] == 0);
+                    nextPageBtn.setDisable(offset + logs.size() >= total);
+                    scrollPane.setVvalue(0);
                 });
+            });
+        };
+
+        prevPageBtn.setOnAction(_ -> {
+            page[0]--;
+            loadPage.run();
+        });
+        nextPageBtn.setOnAction(_ -> {
+            page[0]++;
+            loadPage.run();
         });
-    }
 
+        // 🔍 Filters start again from the first page once typing pauses
+        PauseTransition debounce = new PauseTransition(Duration.millis(SEARCH_DEBOUNCE_MILLIS));
+        debounce.setOnFinished(_ -> {
+            page[0] = 0;
+            loadPage.run();
+        });
+        searchBox.textProperty().addListener((_, _, _) -> debounce.playFromStart());
+        fromPicker.valueProperty().addListener((_, _, _) -> debounce.playFromStart());
+        toPicker.valueProperty().addListener((_, _, _) -> debounce.playFromStart());
 
-    private void printOrderReceipt(double totalPrice) {
-        PrinterJob job = PrinterJob.createPrinterJob();
-        if (job != null && job.showPrintDialog(null)) {
-            VBox printContent = new VBox(5);
-            printContent.setPadding(new Insets(10));
+        loadPage.run();
+    }
 
-            DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("dd - MM - yyyy");
-            Label dateLabel = new Label("Date: " + LocalDate.now().format(dateFormat));
-            printContent.getChildren().add(dateLabel);
-            
-            Map<MenuItem, Integer> itemQuantities = new HashMap<>();
-            for (MenuItem item : orderItems) {
-                itemQuantities.put(item, itemQuantities.getOrDefault(item, 0) + 1);
+    /**
+     * Groups one page of log entries, already sorted newest first, into a box per day.
+     *
+     * @param logs the page of entries
+     * @return one box per day
+     */
+    private List<VBox> createLogDayBoxes(List<LogEntry> logs) {
+        List<VBox> dayBoxes = new ArrayList<>();
+        VBox dayBox = null;
+        LocalDate currentDate = null;
+        for (LogEntry log : logs) {
+            LocalDate date = log.getTimeStamp().toLocalDate();
+            if (!date.equals(currentDate)) {
+                currentDate = date;
+                dayBox = new VBox(5);
+                dayBox.setStyle("-fx-background-color: #f2f2f2; -fx-border-color: #ddd; -fx-border-width: 0 0 1 0; -fx-padding: 10;");
+
+                Label dateLabel = new Label("🗓️ Date: " + date + " | E.C. " + EthiopianDateUtil.formatEthiopianDate(date));
+                dateLabel.setStyle("-fx-font-weight: bold; -fx-text-fill: #444;");
+                dayBox.getChildren().add(dateLabel);
+                dayBoxes.add(dayBox);
             }
+            Label logLabel = new Label(log.getTimeStamp().toLocalTime() + " — " + log.getAction());
+            logLabel.setFont(geezFont);
+            dayBox.getChildren().add(logLabel);
+        }
+        return dayBoxes;
+    }
 
-            // VBox to hold order items
-            
-            VBox content = new VBox(10);
-            content.setPadding(new Insets(10));
-            
-            for (Map.Entry<MenuItem, Integer> entry : itemQuantities.entrySet()) {
-                MenuItem item = entry.getKey();
-                int quantity = entry.getValue();
-                Label line = new Label(item.getName() + " | x" + quantity +
-                        " | " + String.format("%.2f", item.getPrice()) +
-                        " x " + quantity + " = Br" + item.getPrice() * quantity);
-                line.setFont(geezFont);
-                printContent.getChildren().add(line);
+    /**
+     * Shows the latency, error and row figures of every database and email operation,
+     * with the state of the connection pool and background queues. The report can be
+     * refreshed and dumped to a text file for support.
+     */
+    private void showDiagnosticsView() {
+        TextArea reportArea = new TextArea(buildDiagnosticsReport());
+        reportArea.setEditable(false);
+        reportArea.setFont(Font.font("Monospaced", 12));
+        VBox.setVgrow(reportArea, Priority.ALWAYS);
+
+        Button refreshBtn = new Button("Refresh");
+        refreshBtn.setOnAction(_ -> reportArea.setText(buildDiagnosticsReport()));
+
+        Button dumpBtn = new Button("Dump to File");
+        dumpBtn.setOnAction(_ -> {
+            String report = buildDiagnosticsReport();
+            reportArea.setText(report);
+            try {
+                Path file = Metrics.dump(report);
+                showAlert(Alert.AlertType.INFORMATION, "Diagnostics", "Diagnostics written to " + file.toAbsolutePath());
+                logAction("User dumped diagnostics to " + file.getFileName());
+            } catch (IOException e) {
+                showAlert(Alert.AlertType.ERROR, "Error", "Could not write diagnostics: " + e.getMessage());
             }
+        });
 
-            Label totalLabel = new Label("Total Price: " + String.format("%.2f", totalPrice) + " Br");
-            totalLabel.setStyle("-fx-font-weight: bold;");
-            printContent.getChildren().add(totalLabel);
+        HBox buttons = new HBox(10, refreshBtn, dumpBtn);
+        buttons.setAlignment(Pos.CENTER_LEFT);
 
-            boolean printed = job.printPage(printContent);
-            if (printed) {
-                job.endJob();
-            }
-        }
+        VBox wrapper = new VBox(10, buttons, reportArea);
+        wrapper.setPadding(new Insets(10));
+        centerPanel.getChildren().setAll(wrapper);
+        logAction("User viewed diagnostics");
+    }
+
+    /**
+     * Builds the diagnostics report from in-memory figures only, so it is cheap
+     * enough to build on the FX thread.
+     *
+     * @return the report text
+     */
+    private String buildDiagnosticsReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Diagnostics at ").append(LocalDateTime.now().withNano(0)).append("\n\n");
+        sb.append(Metrics.format()).append('\n');
+        sb.append("Connection pool: ").append(DatabaseConnection.getPoolStats()).append('\n');
+        sb.append("Startup: ").append(STARTUP).append('\n');
+        sb.append("Orders waiting to be saved: ").append(commitQueue == null ? 0 : commitQueue.getPendingCount()).append('\n');
+        sb.append("Orders pending in journal: ").append(orderJournal == null ? 0 : orderJournal.getPendingCount()).append('\n');
+        sb.append("Orders waiting for room in the queue: ").append(journalReplayer == null ? 0 : journalReplayer.getBacklogCount()).append('\n');
+        sb.append("Receipts waiting to print: ").append(receiptSpooler == null ? 0 : receiptSpooler.getPendingCount()).append('\n');
+        sb.append("Audit log: ").append(AUDIT_LOG.getWrittenCount()).append(" written, ")
+          .append(AUDIT_LOG.getQueuedCount()).append(" queued, ")
+          .append(AUDIT_LOG.getDroppedCount()).append(" dropped, ")
+          .append(AUDIT_LOG.getFailedCount()).append(" failed\n");
+        sb.append("Report emails in outbox: ").append(reportMailer == null ? 0 : reportMailer.getOutboxSize()).append('\n');
+        return sb.toString();
+    }
+
+
+    /**
+     * Hands the receipt of a placed order to the print spooler.
+     *
+     * @param order the placed order
+     */
+    private void printOrderReceipt(Order order) {
+    	if (!receiptSpooler.submit(Receipt.of(order))) {
+    		showAlert(Alert.AlertType.WARNING, "Receipt Not Printed", "The printer queue is full; the receipt for this order was not printed.");
+    	}
+    }
+    
+    /**
+     * Picks where receipts go: the default printer if one is installed, text files otherwise.
+     *
+     * @return the receipt sink
+     */
+    private ReceiptSink createReceiptSink() {
+    	if (Printer.getDefaultPrinter() != null) {
+    		return new PrinterReceiptSink(geezFont);
+    	}
+    	System.err.println("No default printer; receipts are written to " + RECEIPT_DIRECTORY.toAbsolutePath());
+    	return new FileReceiptSink(RECEIPT_DIRECTORY);
+    }
+    
+    /**
+     * Creates the listener that reports receipts the spooler could not print. Each one is
+     * logged; on screen they add up in a single status label rather than an alert per sale.
+     *
+     * @return the spooler listener
+     */
+    private ReceiptSpooler.Listener createReceiptListener() {
+    	return new ReceiptSpooler.Listener() {
+    		@Override
+    		public void printed(Receipt receipt) {
+    		}
+
+    		@Override
+    		public void failed(Receipt receipt, Exception cause) {
+    			String reason = cause == null ? "app closed" : cause.getMessage();
+    			logAction("Receipt of " + Money.format(receipt.total()) + " Br printing FAILED: " + reason);
+    			Platform.runLater(() -> updateReceiptStatusLabel(unprintedReceipts + 1, reason));
+    		}
+    	};
     }
     
     /**
-     * Places an order and updates the UI and database.
+     * Places an order: writes it to the order journal, queues it for saving in the
+     * background behind any journaled orders still waiting, and clears the cart. The
+     * cart is kept if the order cannot be journaled, or, when there is no journal, if
+     * the commit queue is full.
      *
      * @param taxed true if the order is taxed
+     * @return snapshot of the placed order, or null if it was not accepted
      */
-    private void placeOrder(boolean taxed) {
-    	orderDAO.saveOrder(orderItems, taxed);
-    	orderItems.clear();
-    	orderTotalPrice = 0;
+    private Order placeOrder(boolean taxed) {
+    	if (cart.isEmpty()) {
+    		return null;
+    	}
+    	Order order = cart.toOrder();
+    	order.setIsTaxed(taxed);
+    	
+    	if (orderJournal != null) {
+    		try {
+    			orderJournal.append(order);
+    		} catch (IOException e) {
+    			e.printStackTrace();
+    			showAlert(Alert.AlertType.ERROR, "Order Not Placed",
+    					"The order could not be written to the local journal. The order was kept, please try again.");
+    			logAction("Placing order FAILED! Order journal not writable.");
+    			return null;
+    		}
+    		journalReplayer.add(order);
+    	} else if (!commitQueue.submit(order)) {
+    		showAlert(Alert.AlertType.ERROR, "Order Not Placed",
+    				"Too many orders are waiting for the database. The order was kept, please try again shortly.");
+    		logAction("Placing order FAILED! Commit queue is full.");
+    		return null;
+    	}
+    	cart.clear();
+    	cartLineLabels.clear();
     	salesBox.getChildren().clear();
     	updateOrderLabels();
-    	todaysOrders = orderDAO.getTodayOrders();
     	logAction((taxed ? ("Placed a new taxed order."): ("Placed a new untaxed order.")));
-    	
+    	return order;
+    }
+    
+    /**
+     * Opens the local order journal and queues the orders it still holds from an earlier
+     * run, in the order they were placed; those the queue has no room for yet follow as
+     * it empties. Saving is idempotent, so an order that reached the database just before
+     * the till went down is not stored twice.
+     */
+    private void openOrderJournal() {
+    	try {
+    		orderJournal = OrderJournal.open(OrderJournal.DEFAULT_FILE);
+    	} catch (IOException e) {
+    		e.printStackTrace();
+    		logAction("Opening the order journal FAILED! Orders are only kept in memory until saved.");
+    		return;
+    	}
+    	List<Order> replay = orderJournal.getPendingOrders();
+    	if (!replay.isEmpty()) {
+    		logAction("Replaying " + replay.size() + " journaled orders.");
+    	}
+    	journalReplayer = new JournalReplayer(commitQueue);
+    	journalReplayer.addAll(replay);
+    }
+    
+    /**
+     * Creates the listener that mirrors the commit queue on the UI.
+     *
+     * @return the commit listener
+     */
+    private OrderCommitQueue.Listener createCommitListener() {
+    	return new OrderCommitQueue.Listener() {
+    		@Override
+    		public void pendingChanged(int pending, boolean retrying) {
+    			// Read the state when the label is updated: calls from the submitting thread and the worker can cross
+    			Platform.runLater(() -> updatePendingCommitsLabel(commitQueue.getPendingCount(), commitQueue.isRetrying()));
+    		}
+
+    		@Override
+    		public void committed(Order order) {
+    			if (orderJournal != null) {
+    				orderJournal.markCommitted(order);
+    				journalReplayer.feed();
+    			}
+    			refreshTodaysOrders();
+    		}
+
+    		@Override
+    		public void rejected(Order order, Exception cause) {
+    			System.err.println("Order refused by the database and set aside:\n" + order);
+    			logAction("Saving order FAILED permanently, set aside: " + cause.getMessage());
+    			if (orderJournal != null) {
+    				// Copied to the dead-letter file and never replayed again
+    				orderJournal.markFailed(order, cause);
+    				journalReplayer.feed();
+    			}
+    			Platform.runLater(() -> showAlert(Alert.AlertType.ERROR, "Order Not Saved",
+    					"The database refused an order of " + Money.format(order.getTotal()) + " Br placed at "
+    					+ order.getTimestamp().toLocalTime().withNano(0) + ":\n" + cause.getMessage()
+    					+ (orderJournal != null ? "\nA copy was kept in " + orderJournal.getRejectedFile() + "." : "")
+    					+ "\nLater orders are saved as usual."));
+    		}
+
+    		@Override
+    		public void abandoned(Order order) {
+    			if (orderJournal != null) {
+    				System.err.println("Order not saved yet; it stays in the journal for the next start:\n" + order);
+    			} else {
+    				System.err.println("Order could not be saved and was abandoned:\n" + order);
+    			}
+    		}
+    	};
+    }
+    
+    /**
+     * Fetches the orders saved since the last load and merges them into today's orders.
+     * Runs on the commit worker, so refreshes never overlap and never block the UI.
+     */
+    private void refreshTodaysOrders() {
+    	OrderLifecycleEvents.TodaysOrdersRefresh event = new OrderLifecycleEvents.TodaysOrdersRefresh();
+    	event.begin();
+    	List<Order> newOrders = orderDAO.getTodayOrdersSince(lastLoadedOrderId);
+    	if (newOrders.isEmpty()) {
+    		// Most refreshes find nothing; commit them too so their cost shows in the recording
+    		if (event.shouldCommit()) {
+    			event.orderCount = 0;
+    			event.itemCount = 0;
+    			event.commit();
+    		}
+    		return;
+    	}
+    	lastLoadedOrderId = newOrders.get(newOrders.size() - 1).getId();
+    	for (Order order : newOrders) {
+    		orderSearchIndex.add(order);
+    	}
+    	if (event.shouldCommit()) {
+    		event.setOrder(newOrders.get(newOrders.size() - 1));
+    		event.orderCount = newOrders.size();
+    		event.itemCount = 0;
+    		for (Order order : newOrders) {
+    			event.itemCount += order.getItemCount();
+    		}
+    		event.commit();
+    	}
+    	Platform.runLater(() -> {
+    		int shownUpTo = highestOrderId(todaysOrders);
+    		for (Order order : newOrders) {
+    			if (order.getId() <= shownUpTo) {
+    				// Already merged in by the startup reconciliation
+    				continue;
+    			}
+    			todaysOrders.add(order);
+    			todaysSales.add(order);
+    		}
+    	});
+    }
+    
+    /**
+     * Updates the label displaying the number of orders waiting to be saved.
+     *
+     * @param pending orders not yet saved
+     * @param retrying true if saving is currently failing
+     */
+    private void updatePendingCommitsLabel(int pending, boolean retrying) {
+    	pendingCommitsLabel.setText("Pending commits: " + pending + (retrying ? " (retrying)" : ""));
+    	if (retrying) {
+    		pendingCommitsLabel.setStyle("-fx-text-fill: red; -fx-font-weight: bold;");
+    	} else if (pending > 0) {
+    		pendingCommitsLabel.setStyle("-fx-text-fill: darkorange;");
+    	} else {
+    		pendingCommitsLabel.setStyle("-fx-text-fill: gray;");
+    	}
+    }
+    
+    /**
+     * Updates the label displaying the number of receipts that could not be printed.
+     *
+     * @param unprinted receipts not printed; 0 hides the label
+     * @param lastReason why the latest one failed, or null when clearing
+     */
+    private void updateReceiptStatusLabel(int unprinted, String lastReason) {
+    	unprintedReceipts = unprinted;
+    	receiptStatusLabel.setText("Receipts not printed: " + unprinted + (lastReason == null ? "" : " (" + lastReason + ")"));
+    	receiptStatusLabel.setVisible(unprinted > 0);
+    	receiptStatusLabel.setManaged(unprinted > 0);
     }
     
     /**
      * Updates the label displaying the total order price.
      */
     private void updateOrderLabels() {
-    	orderTotalPriceLabel.setText("Total Order Price: Birr" + String.format("%.2f", orderTotalPrice));
+    	orderTotalPriceLabel.setText("Total Order Price: Birr" + Money.format(cart.getTotal()));
     }
     
+    /**
+     * Saves any orders still queued, closes the order journal, prints pending receipts, writes the startup snapshot, records the exit, flushes the audit log and releases the pooled database connections.
+     */
+    @Override
+    public void stop() {
+        if (commitQueue != null) {
+            int unsaved = commitQueue.shutdown(COMMIT_DRAIN_TIMEOUT_MILLIS);
+            if (unsaved > 0) {
+                logAction("Closed app with " + unsaved + " unsaved orders!");
+            }
+        }
+        if (orderJournal != null) {
+            try {
+                orderJournal.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if (receiptSpooler != null) {
+            receiptSpooler.shutdown(RECEIPT_DRAIN_TIMEOUT_MILLIS);
+        }
+        MenuCatalog catalog = menuCatalog.peek();
+        if (!catalog.getItems().isEmpty()) {
+            try {
+                new StartupSnapshot(LocalDate.now(), catalog, todaysOrders).save(StartupSnapshot.DEFAULT_FILE);
+            } catch (IOException e) {
+                System.err.println("Could not write the startup snapshot: " + e.getMessage());
+            }
+        }
+        logAction("User closed app!");
+        if (reportMailer != null) {
+            reportMailer.shutdown();
+        }
+        long lost = AUDIT_LOG.shutdown(AUDIT_LOG_DRAIN_TIMEOUT_MILLIS);
+        if (lost > 0) {
+            System.err.println(lost + " audit log entries were dropped or could not be written.");
+        }
+        dbExecutor.shutdownNow();
+        DatabaseConnection.shutdown();
+    }
+
+    /**
+     * Repairs the daily sales summary from the raw orders without starting the UI.
+     *
+     * @return true if the summary was rebuilt
+     */
+    private static boolean rebuildSalesSummary() {
+    	SchemaMigrator migrator = new SchemaMigrator();
+    	if (migrator.migrate() != SchemaMigrator.Outcome.CURRENT) {
+    		// The rebuild reads columns a half-migrated schema may not have yet
+    		System.err.println("Not rebuilding the daily sales summary: " + migrator.getFailure());
+    		DatabaseConnection.shutdown();
+    		return false;
+    	}
+    	boolean rebuilt = new SalesSummaryDAO().rebuild();
+    	System.out.println(rebuilt ? "Daily sales summary rebuilt." : "Rebuilding the daily sales summary FAILED!");
+    	AUDIT_LOG.append(rebuilt ? "Rebuilt daily sales summary" : "Rebuilding daily sales summary FAILED!");
+    	AUDIT_LOG.shutdown(AUDIT_LOG_DRAIN_TIMEOUT_MILLIS);
+    	DatabaseConnection.shutdown();
+    	return rebuilt;
+    }
+
     /**
      * Entry point of the application.
+     * Run with {@value #REBUILD_SALES_SUMMARY_ARG} to repair the daily sales summary and exit.
      *
      * @param args command line arguments
      */
     public static void main(String[] args) {
+    	if (args.length > 0 && args[0].equals(REBUILD_SALES_SUMMARY_ARG)) {
+    		System.exit(rebuildSalesSummary() ? 0 : 1);
+    	}
+    	STARTUP.mark("main");
     	RestAutomation app = new RestAutomation();
         app.logAction("User started app");
     	launch(args);
         System.out.println("App Started!");
-        app.logAction("User closed app!");
-        
     }
 }
 
@@ -0,0 +1,127 @@
+package application;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Running sales totals in santim keyed by category and tax flag.
+ * Orders are added when they are placed and removed when they are annulled,
+ * so reading a total never walks the order list.
+ *
+ * @author Musab
+ */
+public class SalesAccumulator {
+    private static final int UNTAXED = 0;
+    private static final int TAXED = 1;
+
+    /** Sales per lower-cased category, split into untaxed and taxed amounts. */
+    private final Map<String, long[]> salesByCategory = new HashMap<>();
+    private final long[] salesByTaxFlag = new long[2];
+
+    /**
+     * Adds an order's items to the totals.
+     *
+     * @param order the placed order
+     */
+    public void add(Order order) {
+        apply(order, 1);
+    }
+
+    /**
+     * Removes an order's items from the totals.
+     *
+     * @param order the annulled order
+     */
+    public void remove(Order order) {
+        apply(order, -1);
+    }
+
+    /**
+     * Adds an amount sold in one category.
+     *
+     * @param category the category
+     * @param taxed true if the amount comes from taxed orders
+     * @param amount the amount in santim; negative to subtract
+     */
+    public void add(String category, boolean taxed, long amount) {
+        int taxFlag = taxed ? TAXED : UNTAXED;
+        salesByCategory.computeIfAbsent(key(category), _ -> new long[2])[taxFlag] += amount;
+        salesByTaxFlag[taxFlag] += amount;
+    }
+
+    /**
+     * Clears the totals and rebuilds them from a full list of orders.
+     *
+     * @param orders the orders to total
+     */
+    public void reset(Collection<Order> orders) {
+        salesByCategory.clear();
+        salesByTaxFlag[UNTAXED] = 0;
+        salesByTaxFlag[TAXED] = 0;
+        for (Order order : orders) {
+            add(order);
+        }
+    }
+
+    /**
+     * Returns the sales of one category, taxed and untaxed.
+     *
+     * @param category the category, compared ignoring case
+     * @return total sales of the category
+     */
+    public long getCategorySales(String category) {
+        long[] sales = salesByCategory.get(key(category));
+        return sales == null ? 0 : sales[UNTAXED] + sales[TAXED];
+    }
+
+    /**
+     * Returns the sales of one category for the given tax flag.
+     *
+     * @param category the category, compared ignoring case
+     * @param taxed true for taxed orders, false for untaxed ones
+     * @return sales of the category with that tax flag
+     */
+    public long getCategorySales(String category, boolean taxed) {
+        long[] sales = salesByCategory.get(key(category));
+        return sales == null ? 0 : sales[taxed ? TAXED : UNTAXED];
+    }
+
+    /**
+     * Returns the sales of all taxed orders.
+     *
+     * @return taxed sales
+     */
+    public long getTaxedTotal() {
+        return salesByTaxFlag[TAXED];
+    }
+
+    /**
+     * Returns the sales of all untaxed orders.
+     *
+     * @return untaxed sales
+     */
+    public long getUntaxedTotal() {
+        return salesByTaxFlag[UNTAXED];
+    }
+
+    /**
+     * Returns the sales of all orders.
+     *
+     * @return total sales
+     */
+    public long getTotal() {
+        return salesByTaxFlag[UNTAXED] + salesByTaxFlag[TAXED];
+    }
+
+    private void apply(Order order, int sign) {
+        for (OrderLine line : order.getLines()) {
+            add(line.getItem().getType(), order.getIsTaxed(), sign * line.getLineTotal());
+        }
+    }
+
+    private static String key(String category) {
+        return category == null ? "" : category.toLowerCase(Locale.ROOT);
+    }
+}
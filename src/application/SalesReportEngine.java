@@ -0,0 +1,60 @@
+package application;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Computes sales totals for any range of days from the daily_sales_summary table.
+ * MySQL sums a few rows per day and returns one row per category and tax flag,
+ * so a report's cost depends on the number of days, not the number of orders.
+ *
+ * @author Musab
+ */
+public class SalesReportEngine {
+
+    /** Range report queries; their rows are summary rows, a few per day at most. */
+    private static final OperationMetrics GET_SALES = Metrics.operation("SalesReportEngine.getSales");
+
+    /**
+     * Totals sales per category and tax flag over a range.
+     *
+     * @param range the days to cover
+     * @return the totals; empty if the query fails
+     */
+    public SalesAccumulator getSales(ReportRange range) {
+        SalesAccumulator sales = new SalesAccumulator();
+        String sql = """
+            SELECT category, taxed, SUM(amount) AS amount
+            FROM daily_sales_summary
+            WHERE business_day >= ? AND business_day < ?
+            GROUP BY category, taxed
+        """;
+
+        try {
+            GET_SALES.time(() -> {
+                try (Connection conn = DatabaseConnection.getConnection();
+                     PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+                    // Connector/J streams rows one at a time instead of buffering the whole result
+                    stmt.setFetchSize(Integer.MIN_VALUE);
+                    stmt.setDate(1, Date.valueOf(range.from()));
+                    stmt.setDate(2, Date.valueOf(range.toExclusive()));
+                    long rows = 0;
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            sales.add(rs.getString(1), rs.getBoolean(2), Money.fromDecimal(rs.getBigDecimal(3)));
+                            rows++;
+                        }
+                    }
+                    return rows;
+                }
+            }, rows -> rows);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return sales;
+    }
+}
@@ -0,0 +1,72 @@
+package application;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Formats the sales report that is shown, exported and emailed.
+ *
+ * @author Musab
+ */
+public final class SalesReportFormatter {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd - MM - yyyy");
+
+    private SalesReportFormatter() {
+    }
+
+    /**
+     * Formats a sales report.
+     *
+     * @param range the days covered
+     * @param sales sales totals over the range
+     * @param cash cash logged over the range, in santim
+     * @return the report text
+     */
+    public static String format(ReportRange range, SalesAccumulator sales, long cash) {
+        String gregorianDate = range.from().format(DATE_FORMAT);
+        String ethiopianDate = EthiopianDateUtil.formatEthiopianDate(range.from());
+        if (!range.isSingleDay()) {
+            gregorianDate += " to " + range.lastDay().format(DATE_FORMAT);
+            ethiopianDate += " to " + EthiopianDateUtil.formatEthiopianDate(range.lastDay());
+        }
+
+        // All amounts are in santim, so the totals and the difference are exact
+        long foodSales = sales.getCategorySales("food");
+        long juiceSales = sales.getCategorySales("juice");
+        long hotDrinkSales = sales.getCategorySales("Hot Drink");
+        long softDrinkSales = sales.getCategorySales("Soft Drink");
+        
+        long taxed = sales.getTaxedTotal();
+        long tot = Money.tot(taxed);
+        long hidden = sales.getUntaxedTotal();
+
+        long total = foodSales + juiceSales + hotDrinkSales + softDrinkSales;
+        long total1 = taxed + hidden;
+        long difference = cash - total;
+        
+        return String.format("""
+            Gregorian Date: %s
+            Ethiopian Date : %s
+
+            Food Sales:                 %s
+            Juice Sales:                %s
+            HDS (hot drinks sales):     %s
+            SDS (soft drinks sales):    %s
+            -----------------------------------------
+            Total:                      %s
+            Total:                      %s
+            Cash:                       %s
+            Difference:                 %s
+
+            Bank 1 (Taxed):             %s
+            TOT :                       %s
+            Bank 2 (Hidden):            %s
+            """,
+            gregorianDate,
+            ethiopianDate,
+            Money.format(foodSales), Money.format(juiceSales), Money.format(hotDrinkSales), Money.format(softDrinkSales),
+            Money.format(total), Money.format(total1), Money.format(cash), Money.format(difference),
+            Money.format(taxed), Money.format(tot), Money.format(hidden)
+        );
+    }
+}
@@ -0,0 +1,131 @@
+package application;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Maintains the daily_sales_summary table: sales per business day, category and tax flag.
+ * Orders are added and removed in the same transaction that saves or deletes them,
+ * so range reports can sum a few rows per day instead of joining every order line.
+ *
+ * @author Musab
+ */
+public class SalesSummaryDAO {
+
+    /** Full rebuilds, which scan every order; the rows are the summary rows written. */
+    private static final OperationMetrics REBUILD = Metrics.operation("SalesSummaryDAO.rebuild");
+
+    /**
+     * Adds (sign 1) or subtracts (sign -1) one order's lines, grouped per category.
+     * Amounts use the unit price stored with each line, so adding and later removing an
+     * order cancel out even if the menu price changed in between. Lines saved by a till
+     * that does not store prices yet fall back to the menu price.
+     */
+    private static final String APPLY_ORDER_SQL = """
+        INSERT INTO daily_sales_summary(business_day, category, taxed, amount, quantity)
+        SELECT DATE(o.timestamp), m.category, o.taxed,
+               ? * SUM(oi.quantity * COALESCE(oi.unit_price, m.price)), ? * SUM(oi.quantity)
+        FROM orders o
+        JOIN order_items oi ON o.id = oi.order_id
+        JOIN menu_items m ON m.id = oi.menu_item_id
+        WHERE o.id = ?
+        GROUP BY DATE(o.timestamp), m.category, o.taxed
+        ON DUPLICATE KEY UPDATE amount = amount + VALUES(amount), quantity = quantity + VALUES(quantity)
+    """;
+
+    /**
+     * Adds a saved order to the summary. Must run in the transaction that inserted
+     * the order and its items.
+     *
+     * @param conn the connection holding the transaction
+     * @param orderId id of the saved order
+     * @throws SQLException if the update fails
+     */
+    public static void addOrder(Connection conn, int orderId) throws SQLException {
+        applyOrder(conn, orderId, 1);
+    }
+
+    /**
+     * Removes an order from the summary. Must run in the transaction that deletes
+     * the order, before its rows are deleted.
+     *
+     * @param conn the connection holding the transaction
+     * @param orderId id of the order being deleted
+     * @throws SQLException if the update fails
+     */
+    public static void removeOrder(Connection conn, int orderId) throws SQLException {
+        applyOrder(conn, orderId, -1);
+        // Only the order's own day can have gone to zero
+        String sql = """
+            DELETE FROM daily_sales_summary
+            WHERE quantity = 0 AND business_day = (SELECT DATE(timestamp) FROM orders WHERE id = ?)
+        """;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, orderId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Recomputes the whole summary from the raw orders in one transaction.
+     * Used to repair the table after orders were changed outside the application.
+     *
+     * @return true if the summary was rebuilt
+     */
+    public boolean rebuild() {
+        try {
+            REBUILD.time(() -> {
+                try (Connection conn = DatabaseConnection.getConnection()) {
+                    conn.setAutoCommit(false);
+                    try {
+                        int rows = rebuild(conn);
+                        conn.commit();
+                        return rows;
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        conn.setAutoCommit(true);
+                    }
+                }
+            }, rows -> rows);
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Replaces the summary contents with totals computed from the raw orders.
+     *
+     * @param conn the connection to use; the caller controls the transaction
+     * @return the number of summary rows written
+     * @throws SQLException if the rebuild fails
+     */
+    static int rebuild(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM daily_sales_summary");
+            return stmt.executeUpdate("""
+                INSERT INTO daily_sales_summary(business_day, category, taxed, amount, quantity)
+                SELECT DATE(o.timestamp), m.category, o.taxed,
+                       SUM(oi.quantity * COALESCE(oi.unit_price, m.price)), SUM(oi.quantity)
+                FROM orders o
+                JOIN order_items oi ON o.id = oi.order_id
+                JOIN menu_items m ON m.id = oi.menu_item_id
+                GROUP BY DATE(o.timestamp), m.category, o.taxed
+            """);
+        }
+    }
+
+    private static void applyOrder(Connection conn, int orderId, int sign) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(APPLY_ORDER_SQL)) {
+            stmt.setInt(1, sign);
+            stmt.setInt(2, sign);
+            stmt.setInt(3, orderId);
+            stmt.executeUpdate();
+        }
+    }
+}
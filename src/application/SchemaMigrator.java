@@ -0,0 +1,343 @@
+package application;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Applies versioned schema changes at startup.
+ * Applied versions are recorded in the schema_version table, so each step runs once
+ * per database; steps are written to be safe to re-run if a previous attempt was cut short.
+ * <p>
+ * Each step runs in a transaction together with its schema_version row, but MySQL
+ * commits DDL such as CREATE TABLE or ALTER TABLE implicitly. The transaction only
+ * undoes steps made of DML alone, such as collapsing order lines. Steps that change
+ * the schema are protected by being safe to re-run, not by the rollback.
+ * <p>
+ * Steps use the SQL valid at their own version, never code that follows the latest schema.
+ *
+ * @author Musab
+ */
+public class SchemaMigrator {
+
+    /** Named lock that keeps two tills starting at the same time from migrating together. */
+    private static final String LOCK_NAME = "restautomation_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 30;
+
+    /**
+     * A single schema change.
+     */
+    @FunctionalInterface
+    private interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private record Migration(int version, String description, Step step) {
+    }
+
+    /**
+     * Result of a migration run.
+     */
+    public enum Outcome {
+        /** The schema is at the latest version. */
+        CURRENT,
+        /** Another till held the migration lock past the timeout; worth retrying. */
+        BUSY,
+        /** The database could not be reached; worth retrying. */
+        UNREACHABLE,
+        /** A step was refused; retrying fails the same way until the cause is fixed. */
+        FAILED
+    }
+
+    /** Why the last run failed, for reporting. */
+    private String failure;
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Indexes for date-range queries", conn -> {
+                ensureIndex(conn, "orders", "idx_orders_timestamp", "timestamp");
+                ensureIndex(conn, "order_items", "idx_order_items_order_id", "order_id");
+                ensureIndex(conn, "cash_log", "idx_cash_log_date", "date");
+                ensureIndex(conn, "logs", "idx_logs_timestamp", "timestamp");
+            }),
+            new Migration(2, "Collapse per-unit order_items rows into one row per line", conn -> {
+                // Orders saved before quantities were aggregated have one row per unit,
+                // each already carrying the full quantity.
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("""
+                        CREATE TEMPORARY TABLE order_items_collapsed AS
+                        SELECT order_id, menu_item_id, COUNT(*) AS quantity
+                        FROM order_items
+                        GROUP BY order_id, menu_item_id
+                        HAVING COUNT(*) > 1
+                    """);
+                    stmt.executeUpdate("""
+                        DELETE oi FROM order_items oi
+                        JOIN order_items_collapsed c
+                          ON c.order_id = oi.order_id AND c.menu_item_id = oi.menu_item_id
+                    """);
+                    stmt.executeUpdate("""
+                        INSERT INTO order_items(order_id, menu_item_id, quantity)
+                        SELECT order_id, menu_item_id, quantity FROM order_items_collapsed
+                    """);
+                    stmt.executeUpdate("DROP TEMPORARY TABLE order_items_collapsed");
+                }
+            }),
+            new Migration(3, "Menu version counter bumped by menu_items triggers", conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("""
+                        CREATE TABLE IF NOT EXISTS menu_version (
+                            id TINYINT PRIMARY KEY,
+                            version BIGINT NOT NULL
+                        )
+                    """);
+                    stmt.executeUpdate("INSERT IGNORE INTO menu_version(id, version) VALUES (1, 1)");
+                    for (String event : List.of("INSERT", "UPDATE", "DELETE")) {
+                        String trigger = "trg_menu_items_" + event.toLowerCase(Locale.ROOT) + "_version";
+                        stmt.executeUpdate("DROP TRIGGER IF EXISTS " + trigger);
+                        stmt.executeUpdate("CREATE TRIGGER " + trigger + " AFTER " + event + " ON menu_items"
+                                + " FOR EACH ROW UPDATE menu_version SET version = version + 1 WHERE id = 1");
+                    }
+                }
+            }),
+            new Migration(4, "Daily sales summary per business day, category and tax flag", conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("""
+                        CREATE TABLE IF NOT EXISTS daily_sales_summary (
+                            business_day DATE NOT NULL,
+                            category VARCHAR(100) NOT NULL,
+                            taxed BOOLEAN NOT NULL,
+                            amount DECIMAL(14, 2) NOT NULL,
+                            quantity INT NOT NULL,
+                            PRIMARY KEY (business_day, category, taxed)
+                        )
+                    """);
+                    // Order lines have no price of their own at this version
+                    stmt.executeUpdate("DELETE FROM daily_sales_summary");
+                    stmt.executeUpdate("""
+                        INSERT INTO daily_sales_summary(business_day, category, taxed, amount, quantity)
+                        SELECT DATE(o.timestamp), m.category, o.taxed, SUM(oi.quantity * m.price), SUM(oi.quantity)
+                        FROM orders o
+                        JOIN order_items oi ON o.id = oi.order_id
+                        JOIN menu_items m ON m.id = oi.menu_item_id
+                        GROUP BY DATE(o.timestamp), m.category, o.taxed
+                    """);
+                }
+            }),
+            new Migration(5, "Client order id so replayed orders are saved once", conn -> {
+                // DDL commits implicitly, so a run cut short can leave the column without the key
+                try (Statement stmt = conn.createStatement()) {
+                    if (!columnExists(conn, "orders", "client_uuid")) {
+                        stmt.executeUpdate("ALTER TABLE orders ADD COLUMN client_uuid CHAR(36) NULL");
+                    }
+                    if (!indexExists(conn, "orders", "uq_orders_client_uuid")) {
+                        stmt.executeUpdate("ALTER TABLE orders ADD UNIQUE KEY uq_orders_client_uuid (client_uuid)");
+                    }
+                }
+            }),
+            new Migration(6, "Unit price charged on each order line", conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    if (!columnExists(conn, "order_items", "unit_price")) {
+                        stmt.executeUpdate("ALTER TABLE order_items ADD COLUMN unit_price DECIMAL(10, 2) NULL");
+                    }
+                    // Older lines were always valued at the menu price, so the summary stays as it is
+                    stmt.executeUpdate("""
+                        UPDATE order_items oi
+                        JOIN menu_items m ON m.id = oi.menu_item_id
+                        SET oi.unit_price = m.price
+                        WHERE oi.unit_price IS NULL
+                    """);
+                }
+                SalesSummaryDAO.rebuild(conn);
+            })
+    );
+
+    /**
+     * Brings the database schema up to the latest version.
+     * Failures are reported and leave the remaining steps for the next start.
+     *
+     * @return whether the schema is current, another till is migrating it, the database
+     *         was unreachable, or a step failed
+     */
+    public Outcome migrate() {
+        failure = null;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return migrate(conn);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            failure = "Schema check failed: " + e.getMessage();
+            return DatabaseConnection.isConnectionFailure(e) ? Outcome.UNREACHABLE : Outcome.FAILED;
+        }
+    }
+
+    /**
+     * Brings the schema of the given database up to the latest version.
+     *
+     * @param conn connection to the database, in auto-commit mode
+     * @return whether the schema is current, another till is migrating it, the database
+     *         was unreachable, or a step failed
+     */
+    Outcome migrate(Connection conn) {
+        failure = null;
+        Migration running = null;
+        try {
+            if (!acquireLock(conn)) {
+                failure = "Another till is still migrating the schema.";
+                return Outcome.BUSY;
+            }
+            try {
+                createVersionTable(conn);
+                int current = getCurrentVersion(conn);
+                for (Migration migration : MIGRATIONS) {
+                    if (migration.version() > current) {
+                        running = migration;
+                        apply(conn, migration);
+                    }
+                }
+            } finally {
+                releaseLock(conn);
+            }
+            return Outcome.CURRENT;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            failure = (running == null ? "Schema check" : "Schema migration " + running.version()
+                    + " (" + running.description() + ")") + " failed: " + e.getMessage();
+            return DatabaseConnection.isConnectionFailure(e) ? Outcome.UNREACHABLE : Outcome.FAILED;
+        }
+    }
+
+    /**
+     * Returns the version the migrations bring the schema to.
+     *
+     * @return the latest schema version
+     */
+    static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+    }
+
+    /**
+     * Describes why the last {@link #migrate()} did not bring the schema up to date.
+     *
+     * @return the failure, or null if the last run succeeded
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+    /**
+     * Runs a step and records its version. The rollback on failure only reaches the
+     * DML the step ran after its last DDL statement.
+     */
+    private void apply(Connection conn, Migration migration) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            migration.step().apply(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO schema_version(version, description) VALUES (?, ?)")) {
+                stmt.setInt(1, migration.version());
+                stmt.setString(2, migration.description());
+                stmt.executeUpdate();
+            }
+            conn.commit();
+            System.out.println("Applied schema migration " + migration.version() + ": " + migration.description());
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private void createVersionTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INT PRIMARY KEY,
+                    description VARCHAR(200) NOT NULL,
+                    applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+                )
+            """);
+        }
+    }
+
+    static int getCurrentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private boolean acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private void releaseLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        }
+    }
+
+    private static boolean columnExists(Connection conn, String table, String column) throws SQLException {
+        String sql = """
+            SELECT 1 FROM information_schema.columns
+            WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?
+        """;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, table);
+            stmt.setString(2, column);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static boolean indexExists(Connection conn, String table, String indexName) throws SQLException {
+        String sql = """
+            SELECT 1 FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?
+            LIMIT 1
+        """;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, table);
+            stmt.setString(2, indexName);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Creates an index unless the column already leads an existing index,
+     * for example one MySQL created for a foreign key.
+     */
+    private static void ensureIndex(Connection conn, String table, String indexName, String column)
+            throws SQLException {
+        String sql = """
+            SELECT 1 FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ? AND seq_in_index = 1
+            LIMIT 1
+        """;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, table);
+            stmt.setString(2, column);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return;
+                }
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE INDEX " + indexName + " ON " + table + " (`" + column + "`)");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package application;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records when each startup phase finished, in milliseconds since the JVM started,
+ * so slow boots on the till PCs can be tracked over time.
+ *
+ * @author Musab
+ */
+public class StartupMetrics {
+
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    /**
+     * Records that a phase has just finished.
+     *
+     * @param phase name of the phase
+     * @return milliseconds since the JVM started
+     */
+    public synchronized long mark(String phase) {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        phases.put(phase, uptime);
+        return uptime;
+    }
+
+    /**
+     * Returns when a phase finished.
+     *
+     * @param phase name of the phase
+     * @return milliseconds since the JVM started, or -1 if the phase has not finished
+     */
+    public synchronized long get(String phase) {
+        return phases.getOrDefault(phase, -1L);
+    }
+
+    /**
+     * Formats the recorded phases in the order they finished.
+     *
+     * @return e.g. "main 410 ms, ui shown 1280 ms, database ready 3900 ms"
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(phase.getKey()).append(' ').append(phase.getValue()).append(" ms");
+        }
+        return sb.toString();
+    }
+}
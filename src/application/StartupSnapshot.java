@@ -0,0 +1,184 @@
+package application;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Local copy of the menu and today's orders, written when the till closes and
+ * read at the next start, so the UI is usable before MySQL has answered.
+ * The database stays the source of truth: the snapshot is replaced by what is
+ * loaded from it as soon as those loads finish.
+ *
+ * @author Musab
+ */
+public final class StartupSnapshot {
+
+    /** Where the snapshot is kept, relative to the working directory. */
+    public static final Path DEFAULT_FILE = Path.of("startup.snapshot");
+
+    /** Identifies a snapshot file ("RAS" + format version); other files are ignored. */
+    private static final int MAGIC = 0x52415302;
+
+    private final LocalDate day;
+    private final MenuCatalog catalog;
+    private final List<Order> orders;
+
+    /**
+     * Creates a snapshot of the orders placed on a day. Orders placed on other days,
+     * such as those of a till left running past midnight, are left out.
+     *
+     * @param day the day the snapshot is taken
+     * @param catalog the menu
+     * @param orders orders to keep, oldest first
+     */
+    public StartupSnapshot(LocalDate day, MenuCatalog catalog, List<Order> orders) {
+        this.day = day;
+        this.catalog = catalog;
+        this.orders = placedOn(orders, day);
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public MenuCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Returns the snapshot's orders placed on the current day, going by each order's
+     * own timestamp rather than the day the snapshot was taken.
+     *
+     * @param today the current day
+     * @return the orders placed today, oldest first
+     */
+    public List<Order> getOrders(LocalDate today) {
+        return placedOn(orders, today);
+    }
+
+    private static List<Order> placedOn(List<Order> orders, LocalDate day) {
+        List<Order> placed = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            if (order.getTimestamp().toLocalDate().equals(day)) {
+                placed.add(order);
+            }
+        }
+        return List.copyOf(placed);
+    }
+
+    /**
+     * Reads a snapshot.
+     *
+     * @param file the snapshot file
+     * @return the snapshot, or null if there is none or it cannot be read
+     */
+    public static StartupSnapshot load(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                System.err.println("Ignoring startup snapshot with an unknown format: " + file);
+                return null;
+            }
+            LocalDate day = LocalDate.ofEpochDay(in.readLong());
+
+            long version = in.readLong();
+            int itemCount = in.readInt();
+            List<MenuItem> items = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                items.add(readItem(in));
+            }
+            MenuCatalog catalog = new MenuCatalog(version, items);
+
+            int orderCount = in.readInt();
+            List<Order> orders = new ArrayList<>(orderCount);
+            for (int i = 0; i < orderCount; i++) {
+                Order order = new Order();
+                order.setId(in.readInt());
+                order.setTimestamp(LocalDateTime.parse(in.readUTF()));
+                order.setIsTaxed(in.readBoolean());
+                order.setClientId(in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null);
+                int lineCount = in.readInt();
+                for (int j = 0; j < lineCount; j++) {
+                    MenuItem item = readItem(in);
+                    int quantity = in.readInt();
+                    MenuItem shared = catalog.getItem(item.getId());
+                    if (shared != null && shared.getPrice() == item.getPrice()) {
+                        item = shared;
+                    }
+                    order.addLine(new OrderLine(item, quantity));
+                }
+                orders.add(order);
+            }
+            return new StartupSnapshot(day, catalog, orders);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring unreadable startup snapshot " + file + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the snapshot, replacing the previous one in a single step so a crash
+     * never leaves a half-written file behind.
+     *
+     * @param file the snapshot file
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void save(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(day.toEpochDay());
+
+            out.writeLong(catalog.getVersion());
+            out.writeInt(catalog.getItems().size());
+            for (MenuItem item : catalog.getItems()) {
+                writeItem(out, item);
+            }
+
+            out.writeInt(orders.size());
+            for (Order order : orders) {
+                out.writeInt(order.getId());
+                out.writeUTF(order.getTimestamp().toString());
+                out.writeBoolean(order.getIsTaxed());
+                UUID clientId = order.getClientId();
+                out.writeBoolean(clientId != null);
+                if (clientId != null) {
+                    out.writeLong(clientId.getMostSignificantBits());
+                    out.writeLong(clientId.getLeastSignificantBits());
+                }
+                out.writeInt(order.getLines().size());
+                for (OrderLine line : order.getLines()) {
+                    writeItem(out, line.getItem());
+                    out.writeInt(line.getQuantity());
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeItem(DataOutputStream out, MenuItem item) throws IOException {
+        out.writeInt(item.getId());
+        out.writeUTF(Objects.toString(item.getName(), ""));
+        out.writeLong(item.getPrice());
+        out.writeUTF(Objects.toString(item.getType(), ""));
+        out.writeUTF(Objects.toString(item.getCategory(), ""));
+    }
+
+    private static MenuItem readItem(DataInputStream in) throws IOException {
+        return new MenuItem(in.readInt(), in.readUTF(), in.readLong(), in.readUTF(), in.readUTF());
+    }
+}
@@ -0,0 +1,210 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded queue worked off one item at a time, in submission order, by a background
+ * thread. Subclasses do the work in {@link #process} and retry failures with
+ * {@link #backOff}; this class owns the thread, the pending count and shutdown.
+ * <p>
+ * An item counts as pending from {@link #submit} until the subclass calls
+ * {@link #completed()} or {@link #failed()}. On {@link #shutdown} the worker keeps going
+ * with short retry delays until the queue is empty or the timeout passes; items that
+ * fail while draining stay counted, so shutdown reports them as not done.
+ *
+ * @param <T> type of the queued items
+ *
+ * @author Musab
+ */
+public abstract class WorkerQueue<T> {
+
+    private final BlockingQueue<T> queue;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final String threadName;
+    private final long drainRetryDelayMillis;
+
+    /** The worker thread, null until {@link #start()}. Guarded by this. */
+    private Thread worker;
+
+    private volatile boolean accepting = true;
+    private volatile boolean draining;
+
+    /**
+     * Creates the queue. Items are accepted right away, but only processed once the
+     * owner calls {@link #start()}.
+     *
+     * @param threadName name of the worker thread
+     * @param capacity items that may wait before new ones are refused
+     * @param drainRetryDelayMillis delay between retries while shutting down
+     */
+    protected WorkerQueue(String threadName, int capacity, long drainRetryDelayMillis) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.threadName = threadName;
+        this.drainRetryDelayMillis = drainRetryDelayMillis;
+    }
+
+    /**
+     * Starts the worker thread, unless it is already running or the queue was shut down.
+     */
+    public synchronized void start() {
+        if (worker == null && !draining) {
+            worker = new Thread(this::run, threadName);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Queues an item without blocking.
+     *
+     * @param item the item
+     * @return false if the queue is full or shutting down and the item was not accepted
+     */
+    public boolean submit(T item) {
+        if (!accepting) {
+            return false;
+        }
+        // Count the item before the worker can see it, so the counter never goes negative.
+        int count = pending.incrementAndGet();
+        if (!queue.offer(item)) {
+            pending.decrementAndGet();
+            return false;
+        }
+        submitted(count);
+        return true;
+    }
+
+    /**
+     * Returns the number of items queued or being processed.
+     *
+     * @return pending item count
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Stops accepting items and waits for the queued ones to be processed.
+     * Items still queued after the timeout are handed to {@link #abandon}.
+     *
+     * @param timeoutMillis how long to wait for the queue to drain
+     * @return the number of items that were not done
+     */
+    public int shutdown(long timeoutMillis) {
+        accepting = false;
+        Thread running;
+        synchronized (this) {
+            draining = true;
+            running = worker;
+        }
+        if (running != null) {
+            running.interrupt();
+            try {
+                running.join(timeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        List<T> leftOver = new ArrayList<>();
+        queue.drainTo(leftOver);
+        for (T item : leftOver) {
+            abandon(item);
+        }
+        return pending.get();
+    }
+
+    /**
+     * Processes one item on the worker thread, retrying as the subclass sees fit, and
+     * ends by calling {@link #completed()} or {@link #failed()} unless it throws.
+     *
+     * @param item the item
+     */
+    protected abstract void process(T item);
+
+    /**
+     * Called on the shutting-down thread for each item the worker never got to.
+     *
+     * @param item the item, still counted as pending
+     */
+    protected abstract void abandon(T item);
+
+    /**
+     * Called on the submitting thread after an item was accepted. Does nothing by default.
+     *
+     * @param pendingCount items pending, the new one included
+     */
+    protected void submitted(int pendingCount) {
+    }
+
+    /**
+     * Marks the current item as done.
+     *
+     * @return items still pending
+     */
+    protected final int completed() {
+        return pending.decrementAndGet();
+    }
+
+    /**
+     * Marks the current item as failed for good. While draining it stays counted, so
+     * {@link #shutdown} reports it as not done.
+     *
+     * @return items still pending
+     */
+    protected final int failed() {
+        return draining ? pending.get() : pending.decrementAndGet();
+    }
+
+    /**
+     * Tells whether shutdown has been requested.
+     *
+     * @return true while draining
+     */
+    protected final boolean isDraining() {
+        return draining;
+    }
+
+    /**
+     * Waits before the next attempt at the current item: the given delay, or the short
+     * drain delay once shutdown has been requested. Returns early if shutdown is
+     * requested during the wait.
+     *
+     * @param delayMillis delay while running normally
+     */
+    protected final void backOff(long delayMillis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(draining ? drainRetryDelayMillis : delayMillis);
+        } catch (InterruptedException e) {
+            // Shutdown was requested; later waits use the drain delay.
+        }
+    }
+
+    private void run() {
+        while (true) {
+            T item;
+            try {
+                item = draining ? queue.poll() : queue.take();
+            } catch (InterruptedException e) {
+                if (draining) {
+                    continue;
+                }
+                return;
+            }
+            if (item == null) {
+                return;
+            }
+            try {
+                process(item);
+            } catch (RuntimeException e) {
+                // A failing callback must not stop the items behind this one
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -1,6 +1,9 @@
 module RestAutomation {
 	requires javafx.controls;
 	requires java.sql;
+	requires java.management;
+	requires jdk.jfr;
+	requires static jdk.management; // allocation counters for the benchmarks in bench/
 	requires jakarta.mail;
 	requires jakarta.activation;
 	requires org.joda.time;
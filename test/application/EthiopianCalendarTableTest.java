@@ -0,0 +1,92 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import application.EthiopianCalendarTable.EthiopianDate;
+
+/**
+ * Checks the precomputed table against Joda's Ethiopic chronology.
+ *
+ * @author Musab
+ */
+class EthiopianCalendarTableTest {
+
+    private final EthiopianCalendarTable table = EthiopianDateUtil.getTable();
+
+    @Test
+    void everyDayOfTheSpanMatchesJoda() {
+        for (LocalDate date = table.getFirstDay(); !date.isAfter(table.getLastDay()); date = date.plusDays(1)) {
+            EthiopianDate ethiopian = table.toEthiopian(date);
+            assertEquals(EthiopianDateUtil.convertWithJoda(date), ethiopian.toJoda(), date.toString());
+            assertEquals(date, table.toGregorian(ethiopian.year(), ethiopian.month(), ethiopian.day()),
+                    ethiopian.format());
+        }
+    }
+
+    @Test
+    void rangeMatchesSingleDays() {
+        LocalDate from = LocalDate.of(2024, 9, 1);
+        EthiopianDate[] dates = table.toEthiopian(from, from.plusDays(30));
+        assertEquals(30, dates.length);
+        for (int i = 0; i < dates.length; i++) {
+            assertEquals(table.toEthiopian(from.plusDays(i)), dates[i]);
+        }
+        // Pagume 6 of leap year 2015, then the new year
+        assertEquals(new EthiopianDate(2015, 13, 6), table.toEthiopian(LocalDate.of(2023, 9, 11)));
+        assertEquals(new EthiopianDate(2016, 1, 1), table.toEthiopian(LocalDate.of(2023, 9, 12)));
+    }
+
+    @Test
+    void edgesOfTheSpan() {
+        LocalDate first = LocalDate.of(EthiopianDateUtil.TABLE_FROM_YEAR, 1, 1);
+        LocalDate last = LocalDate.of(EthiopianDateUtil.TABLE_TO_YEAR, 12, 31);
+        assertEquals(first, table.getFirstDay());
+        assertEquals(last, table.getLastDay());
+        assertTrue(table.covers(first));
+        assertTrue(table.covers(last));
+        assertFalse(table.covers(first.minusDays(1)));
+        assertFalse(table.covers(last.plusDays(1)));
+
+        assertThrows(IllegalArgumentException.class, () -> table.toEthiopian(first.minusDays(1)));
+        assertThrows(IllegalArgumentException.class, () -> table.toEthiopian(last.plusDays(1)));
+        assertEquals(1, table.toEthiopian(last, last.plusDays(1)).length);
+        assertEquals(0, table.toEthiopian(first, first).length);
+        assertThrows(IllegalArgumentException.class, () -> table.toEthiopian(last, last.plusDays(2)));
+        assertThrows(IllegalArgumentException.class, () -> table.toEthiopian(first.plusDays(1), first));
+
+        // The first Ethiopian year starts before the span, the last one ends after it
+        EthiopianDate firstEthiopian = table.toEthiopian(first);
+        EthiopianDate lastEthiopian = table.toEthiopian(last);
+        assertThrows(IllegalArgumentException.class, () -> table.toGregorian(
+                firstEthiopian.year(), firstEthiopian.month(), firstEthiopian.day() - 1));
+        assertThrows(IllegalArgumentException.class, () -> table.toGregorian(
+                lastEthiopian.year(), lastEthiopian.month(), lastEthiopian.day() + 1));
+        assertThrows(IllegalArgumentException.class, () -> table.toGregorian(firstEthiopian.year() - 1, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> table.toGregorian(lastEthiopian.year() + 1, 1, 1));
+    }
+
+    @Test
+    void invalidEthiopianDatesAreRefused() {
+        assertThrows(IllegalArgumentException.class, () -> table.toGregorian(2016, 13, 6));
+        assertEquals(LocalDate.of(2023, 9, 11), table.toGregorian(2015, 13, 6));
+        assertThrows(IllegalArgumentException.class, () -> table.toGregorian(2016, 14, 1));
+        assertThrows(IllegalArgumentException.class, () -> table.toGregorian(2016, 1, 31));
+        assertThrows(IllegalArgumentException.class, () -> table.toGregorian(2016, 0, 1));
+    }
+
+    @Test
+    void singleYearTable() {
+        EthiopianCalendarTable year = new EthiopianCalendarTable(2025, 2025);
+        for (LocalDate date = year.getFirstDay(); !date.isAfter(year.getLastDay()); date = date.plusDays(1)) {
+            assertEquals(table.toEthiopian(date), year.toEthiopian(date), date.toString());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new EthiopianCalendarTable(2025, 2024));
+    }
+}
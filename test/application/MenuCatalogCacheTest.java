@@ -0,0 +1,81 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks when {@link MenuCatalogCache} reloads the menu, against a DAO stand-in
+ * whose menu version and items are set by the test.
+ *
+ * @author Musab
+ */
+class MenuCatalogCacheTest {
+
+    private final FakeMenuItemDAO dao = new FakeMenuItemDAO();
+    private final MenuCatalogCache cache = new MenuCatalogCache(dao);
+
+    @Test
+    void firstRefreshLoadsTheMenuEvenWithoutAVersion() {
+        dao.version = -1;
+
+        assertTrue(cache.refreshIfChanged());
+        assertEquals(2, cache.peek().getItems().size());
+        assertEquals(-1, cache.peek().getVersion());
+
+        // Still no version: the loaded menu is kept
+        assertFalse(cache.refreshIfChanged());
+        assertEquals(1, dao.loads);
+
+        // Once a version can be read the menu is loaded again
+        dao.version = 4;
+        assertTrue(cache.refreshIfChanged());
+        assertEquals(4, cache.peek().getVersion());
+        assertEquals(2, dao.loads);
+    }
+
+    @Test
+    void unreadableVersionKeepsTheLoadedMenu() {
+        dao.version = 3;
+        MenuCatalog loaded = cache.get();
+
+        dao.version = -1;
+        assertFalse(cache.refreshIfChanged());
+        assertSame(loaded, cache.peek());
+        assertEquals(1, dao.loads);
+    }
+
+    @Test
+    void unchangedVersionDoesNotReload() {
+        dao.version = 3;
+        assertTrue(cache.refreshIfChanged());
+
+        assertFalse(cache.refreshIfChanged());
+        assertEquals(1, dao.loads);
+    }
+
+    private static final class FakeMenuItemDAO extends MenuItemDAO {
+        long version;
+        int loads;
+
+        @Override
+        public long getMenuVersion() {
+            return version;
+        }
+
+        @Override
+        public List<MenuItem> getAllItems() {
+            loads++;
+            List<MenuItem> items = new ArrayList<>();
+            items.add(new MenuItem(1, "Tea", 1500, "Hot Drink", "Drinks"));
+            items.add(new MenuItem(2, "Pizza", 25000, "Food", "Food"));
+            return items;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Runs the order journal, the replayer and the commit queue together against a
+ * database that goes away in the middle of service, wired the way RestAutomation
+ * wires them.
+ *
+ * @author Musab
+ */
+class OrderJournalReplayTest {
+
+    private static final long WAIT_MILLIS = 30_000;
+
+    /** Menu item the fake database refuses, like one deleted while it was still on sale. */
+    private static final int DELETED_ITEM_ID = 99;
+
+    @TempDir
+    Path dir;
+
+    private OrderJournal journal;
+    private OrderCommitQueue queue;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (queue != null) {
+            queue.shutdown(1_000);
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void ordersPlacedDuringAnOutageAreSavedInOrderOnceTheDatabaseIsBack() throws Exception {
+        FakeDatabase database = new FakeDatabase();
+        journal = OrderJournal.open(dir.resolve("orders.journal"));
+        JournalReplayer replayer = start(database);
+
+        // Service goes on while MySQL is down
+        database.down = true;
+        List<Order> placed = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            Order order = order(i == 3 ? DELETED_ITEM_ID : i);
+            journal.append(order);
+            replayer.add(order);
+            placed.add(order);
+        }
+        waitFor(() -> database.failedAttempts.get() >= 2);
+        assertEquals(5, journal.getPendingCount());
+        assertTrue(database.saved.isEmpty());
+
+        database.down = false;
+        waitFor(() -> journal.getPendingCount() == 0);
+
+        List<UUID> expected = new ArrayList<>();
+        for (Order order : placed) {
+            if (order != placed.get(2)) {
+                expected.add(order.getClientId());
+            }
+        }
+        assertEquals(expected, database.saved);
+        String deadLetters = Files.readString(journal.getRejectedFile());
+        assertTrue(deadLetters.contains(placed.get(2).getClientId().toString()), deadLetters);
+
+        // Nothing pending, so the journal started over instead of keeping every record
+        assertEquals(4, journal.getSize());
+        journal.close();
+        journal = OrderJournal.open(dir.resolve("orders.journal"));
+        assertEquals(0, journal.getPendingCount());
+    }
+
+    @Test
+    void refusedOrdersAreNotReplayedAfterARestart() throws Exception {
+        journal = OrderJournal.open(dir.resolve("orders.journal"));
+        Order refused = order(DELETED_ITEM_ID);
+        Order kept = order(1);
+        journal.append(refused);
+        journal.append(kept);
+
+        // The refusal is recorded, then the till goes down before the database comes back
+        journal.markFailed(refused, new SQLIntegrityConstraintViolationException("menu item deleted", "23000"));
+        journal.close();
+
+        journal = OrderJournal.open(dir.resolve("orders.journal"));
+        List<Order> pending = journal.getPendingOrders();
+        assertEquals(1, pending.size());
+        assertEquals(kept.getClientId(), pending.get(0).getClientId());
+    }
+
+    @Test
+    void newSalesWaitBehindABacklogTheQueueCannotHoldYet() throws Exception {
+        FakeDatabase database = new FakeDatabase();
+        QueueListener listener = new QueueListener(null);
+        queue = new OrderCommitQueue(database, listener);
+        JournalReplayer replayer = new JournalReplayer(queue);
+        listener.onFinished = replayer::feed;
+
+        // More journaled orders than the queue holds, as after a long outage
+        List<Order> backlog = new ArrayList<>();
+        for (int i = 0; i < 10_005; i++) {
+            backlog.add(order(1));
+        }
+        replayer.addAll(backlog);
+        assertEquals(5, replayer.getBacklogCount());
+
+        Order newSale = order(2);
+        replayer.add(newSale);
+        queue.start();
+        waitFor(() -> database.saved.size() == backlog.size() + 1);
+
+        assertEquals(newSale.getClientId(), database.saved.get(database.saved.size() - 1));
+        assertEquals(backlog.get(backlog.size() - 1).getClientId(), database.saved.get(backlog.size() - 1));
+    }
+
+    private JournalReplayer start(FakeDatabase database) {
+        QueueListener listener = new QueueListener(journal);
+        queue = new OrderCommitQueue(database, listener);
+        JournalReplayer replayer = new JournalReplayer(queue);
+        listener.onFinished = replayer::feed;
+        replayer.addAll(journal.getPendingOrders());
+        queue.start();
+        return replayer;
+    }
+
+    private static Order order(int menuItemId) {
+        Order order = new Order();
+        order.addLine(new OrderLine(new MenuItem(menuItemId, "Item " + menuItemId, 10_000, "Food", "Food"), 1));
+        return order;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WAIT_MILLIS);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for the commit queue");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    /** Journals commit progress the way RestAutomation's commit listener does. */
+    private static final class QueueListener implements OrderCommitQueue.Listener {
+
+        private final OrderJournal journal;
+        /** Feeds the replayer; runs once the queue is done with an order. */
+        private volatile Runnable onFinished = () -> { };
+
+        QueueListener(OrderJournal journal) {
+            this.journal = journal;
+        }
+
+        @Override
+        public void pendingChanged(int pending, boolean retrying) {
+        }
+
+        @Override
+        public void committed(Order order) {
+            if (journal != null) {
+                journal.markCommitted(order);
+            }
+            onFinished.run();
+        }
+
+        @Override
+        public void rejected(Order order, Exception cause) {
+            if (journal != null) {
+                journal.markFailed(order, cause);
+            }
+            onFinished.run();
+        }
+
+        @Override
+        public void abandoned(Order order) {
+        }
+    }
+
+    /** Stands in for MySQL: unreachable while down, and refuses orders selling a deleted item. */
+    private static final class FakeDatabase extends OrderDAO {
+
+        volatile boolean down;
+        final AtomicInteger failedAttempts = new AtomicInteger();
+        final List<UUID> saved = new CopyOnWriteArrayList<>();
+        private int nextId = 1;
+
+        @Override
+        public int saveOrder(Order order) throws SQLException {
+            if (down) {
+                failedAttempts.incrementAndGet();
+                throw new SQLTransientConnectionException("Communications link failure", "08S01");
+            }
+            if (order.getLines().get(0).getItem().getId() == DELETED_ITEM_ID) {
+                throw new SQLIntegrityConstraintViolationException("Cannot add or update a child row", "23000");
+            }
+            saved.add(order.getClientId());
+            order.setId(nextId);
+            return nextId++;
+        }
+    }
+}
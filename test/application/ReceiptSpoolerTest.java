@@ -0,0 +1,168 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Prints receipts through the spooler into an in-memory sink and a FileReceiptSink.
+ *
+ * @author Musab
+ */
+class ReceiptSpoolerTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<Receipt> printed = new CopyOnWriteArrayList<>();
+    private final List<Exception> failures = new CopyOnWriteArrayList<>();
+    private final ReceiptSpooler.Listener listener = new ReceiptSpooler.Listener() {
+        @Override
+        public void printed(Receipt receipt) {
+            printed.add(receipt);
+        }
+
+        @Override
+        public void failed(Receipt receipt, Exception cause) {
+            failures.add(cause);
+        }
+    };
+
+    private ReceiptSpooler spooler;
+
+    @AfterEach
+    void tearDown() {
+        if (spooler != null) {
+            spooler.shutdown(1_000);
+        }
+    }
+
+    @Test
+    void receiptsArePrintedInSubmissionOrder() {
+        List<List<String>> paper = new CopyOnWriteArrayList<>();
+        spooler = new ReceiptSpooler((receipt, lines) -> paper.add(lines), ReceiptLayout.DEFAULT, listener);
+        spooler.start();
+
+        List<Receipt> receipts = List.of(receipt(1), receipt(2), receipt(3));
+        for (Receipt receipt : receipts) {
+            assertTrue(spooler.submit(receipt));
+        }
+
+        assertEquals(0, spooler.shutdown(5_000));
+        assertEquals(receipts, printed);
+        assertEquals(3, paper.size());
+        assertEquals(ReceiptLayout.DEFAULT.render(receipts.get(2)), paper.get(2));
+        assertTrue(failures.isEmpty());
+        assertFalse(spooler.submit(receipt(4)), "accepted after shutdown");
+    }
+
+    @Test
+    void fileSinkWritesOneFilePerReceipt() throws IOException {
+        spooler = new ReceiptSpooler(new FileReceiptSink(dir.resolve("receipts")), ReceiptLayout.DEFAULT, listener);
+        spooler.start();
+        Receipt receipt = receipt(2);
+
+        assertTrue(spooler.submit(receipt));
+        assertEquals(0, spooler.shutdown(5_000));
+
+        try (var files = Files.list(dir.resolve("receipts"))) {
+            List<Path> written = files.toList();
+            assertEquals(1, written.size());
+            assertEquals(ReceiptLayout.DEFAULT.render(receipt), Files.readAllLines(written.get(0)));
+        }
+    }
+
+    @Test
+    void receiptThatKeepsFailingIsReportedOnceAndCountedAsUnprinted() {
+        spooler = new ReceiptSpooler((receipt, lines) -> {
+            throw new IOException("Printer offline");
+        }, ReceiptLayout.DEFAULT, listener);
+        spooler.start();
+
+        assertTrue(spooler.submit(receipt(1)));
+
+        // Draining retries a second apart, so the attempts fit in the timeout
+        assertEquals(1, spooler.shutdown(10_000));
+        assertEquals(1, failures.size());
+        assertNotNull(failures.get(0));
+        assertEquals("Printer offline", failures.get(0).getMessage());
+        assertTrue(printed.isEmpty());
+    }
+
+    @Test
+    void fullSpoolerRefusesReceiptsAndReportsTheQueuedOnesAtShutdown() throws InterruptedException {
+        CountDownLatch printing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        spooler = new ReceiptSpooler((receipt, lines) -> {
+            printing.countDown();
+            release.await();
+        }, ReceiptLayout.DEFAULT, listener);
+        spooler.start();
+
+        assertTrue(spooler.submit(receipt(1)));
+        assertTrue(printing.await(5, TimeUnit.SECONDS));
+        int accepted = 0;
+        while (spooler.submit(receipt(1))) {
+            accepted++;
+        }
+        assertEquals(100, accepted);
+        assertEquals(101, spooler.getPendingCount());
+
+        // The printer stays stuck past the timeout: every queued receipt is reported unprinted
+        assertEquals(101, spooler.shutdown(200));
+        assertEquals(100, failures.size());
+        assertNull(failures.get(0));
+        release.countDown();
+    }
+
+    @Test
+    void listenerThatThrowsDoesNotGetTheReceiptPrintedAgain() {
+        List<List<String>> paper = new CopyOnWriteArrayList<>();
+        spooler = new ReceiptSpooler((receipt, lines) -> paper.add(lines), ReceiptLayout.DEFAULT,
+                new ReceiptSpooler.Listener() {
+                    @Override
+                    public void printed(Receipt receipt) {
+                        printed.add(receipt);
+                        if (printed.size() == 1) {
+                            throw new IllegalStateException("Label update failed");
+                        }
+                    }
+
+                    @Override
+                    public void failed(Receipt receipt, Exception cause) {
+                        failures.add(cause);
+                    }
+                });
+        spooler.start();
+
+        assertTrue(spooler.submit(receipt(1)));
+        assertTrue(spooler.submit(receipt(2)));
+
+        assertEquals(0, spooler.shutdown(5_000));
+        assertEquals(2, paper.size());
+        assertEquals(2, printed.size());
+        assertTrue(failures.isEmpty());
+    }
+
+    private static Receipt receipt(int quantity) {
+        Order order = new Order();
+        order.setTimestamp(LocalDateTime.of(2025, 4, 12, 12, 30).plusSeconds(quantity));
+        order.addLine(new OrderLine(new MenuItem(1, "ሻይ Tea", 1_500, "Hot Drink", "Hot Drink"), quantity));
+        return Receipt.of(order);
+    }
+}
@@ -0,0 +1,224 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Sends reports through an SMTP server stand-in listening on localhost.
+ *
+ * @author Musab
+ */
+class ReportMailerTest {
+
+    private static final String MANAGER = "manager@example.com";
+    private static final String OWNER = "owner@example.com";
+
+    @TempDir
+    Path outbox;
+
+    private FakeSmtpServer server;
+    private ReportMailer mailer;
+    private final List<String> dropped = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (mailer != null) {
+            mailer.shutdown();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void reportReachesEveryRecipient() throws Exception {
+        server = new FakeSmtpServer(Set.of());
+        mailer = mailer(MANAGER, OWNER);
+
+        assertTrue(mailer.send("Daily report", "Total: 1,250.00 Br").get(10, TimeUnit.SECONDS));
+
+        assertEquals(List.of(MANAGER, OWNER), server.recipients);
+        assertTrue(server.data.get(0).contains("Subject: Daily report"), server.data.get(0));
+        assertTrue(server.data.get(0).contains("Total: 1,250.00 Br"), server.data.get(0));
+        assertEquals(0, mailer.getOutboxSize());
+    }
+
+    @Test
+    void refusedRecipientStaysInTheOutbox() throws Exception {
+        server = new FakeSmtpServer(Set.of(OWNER));
+        mailer = mailer(MANAGER, OWNER);
+
+        assertFalse(mailer.send("Daily report", "body").get(10, TimeUnit.SECONDS));
+
+        assertEquals(List.of(MANAGER), server.recipients);
+        List<Path> left = outboxFiles();
+        assertEquals(1, left.size());
+        Properties message = load(left.get(0));
+        assertEquals(OWNER, message.getProperty("recipients"));
+        assertEquals("1", message.getProperty("attempts"));
+        assertTrue(dropped.isEmpty());
+    }
+
+    @Test
+    void recipientRefusedOnTheLastAttemptIsDroppedAndReported() throws Exception {
+        server = new FakeSmtpServer(Set.of(OWNER));
+        Properties earlier = new Properties();
+        earlier.setProperty("subject", "Weekly report");
+        earlier.setProperty("body", "body");
+        earlier.setProperty("recipients", OWNER);
+        earlier.setProperty("attempts", String.valueOf(ReportMailer.MAX_SEND_ATTEMPTS - 1));
+        try (var writer = Files.newBufferedWriter(outbox.resolve("1-earlier.properties"))) {
+            earlier.store(writer, null);
+        }
+        mailer = mailer(MANAGER);
+
+        assertTrue(mailer.send("Daily report", "body").get(10, TimeUnit.SECONDS));
+
+        assertEquals(List.of(), outboxFiles());
+        assertEquals(1, dropped.size());
+        assertTrue(dropped.get(0).startsWith(OWNER + " Weekly report refused " + ReportMailer.MAX_SEND_ATTEMPTS),
+                dropped.get(0));
+    }
+
+    @Test
+    void unreachableServerKeepsTheMessage() throws Exception {
+        int port;
+        try (ServerSocket closed = new ServerSocket(0)) {
+            port = closed.getLocalPort();
+        }
+        mailer = new ReportMailer(config(port, MANAGER), outbox, this::recordDrop);
+
+        assertFalse(mailer.send("Daily report", "body").get(20, TimeUnit.SECONDS));
+
+        assertEquals(1, outboxFiles().size());
+        assertEquals("0", load(outboxFiles().get(0)).getProperty("attempts"));
+    }
+
+    private ReportMailer mailer(String... recipients) {
+        return new ReportMailer(config(server.getPort(), recipients), outbox, this::recordDrop);
+    }
+
+    private void recordDrop(String recipient, String subject, String reason) {
+        dropped.add(recipient + " " + subject + " " + reason);
+    }
+
+    private static MailConfig config(int port, String... recipients) {
+        return new MailConfig("localhost", port, false, "", "", "till@example.com", "Sales Report",
+                List.of(recipients));
+    }
+
+    private List<Path> outboxFiles() throws IOException {
+        try (var files = Files.list(outbox)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static Properties load(Path file) throws IOException {
+        Properties props = new Properties();
+        try (var reader = Files.newBufferedReader(file)) {
+            props.load(reader);
+        }
+        return props;
+    }
+
+    /**
+     * Just enough of an SMTP server for JavaMail: accepts every message and refuses the
+     * recipients it was given, one connection at a time.
+     */
+    private static final class FakeSmtpServer implements AutoCloseable {
+
+        final List<String> recipients = new CopyOnWriteArrayList<>();
+        final List<String> data = new CopyOnWriteArrayList<>();
+        private final Set<String> refused;
+        private final ServerSocket socket;
+        private final Thread thread;
+
+        FakeSmtpServer(Set<String> refused) throws IOException {
+            this.refused = refused;
+            this.socket = new ServerSocket(0, 5, InetAddress.getLoopbackAddress());
+            this.thread = new Thread(this::serve, "fake-smtp");
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        int getPort() {
+            return socket.getLocalPort();
+        }
+
+        private void serve() {
+            while (!socket.isClosed()) {
+                try (Socket client = socket.accept()) {
+                    converse(client);
+                } catch (IOException e) {
+                    // Closed by the test, or the client hung up
+                }
+            }
+        }
+
+        private void converse(Socket client) throws IOException {
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+            PrintWriter out = new PrintWriter(client.getOutputStream(), true, StandardCharsets.US_ASCII);
+            reply(out, "220 localhost ready");
+            String rcpt = null;
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase();
+                if (command.startsWith("EHLO")) {
+                    reply(out, "250-localhost");
+                    reply(out, "250 8BITMIME");
+                } else if (command.startsWith("RCPT TO:")) {
+                    rcpt = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                    reply(out, refused.contains(rcpt) ? "550 No such user" : "250 OK");
+                } else if (command.equals("DATA")) {
+                    reply(out, "354 End with .");
+                    StringBuilder message = new StringBuilder();
+                    while (!(line = in.readLine()).equals(".")) {
+                        message.append(line).append('\n');
+                    }
+                    recipients.add(rcpt);
+                    data.add(message.toString());
+                    reply(out, "250 Queued");
+                } else if (command.equals("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else {
+                    // HELO, MAIL FROM, RSET, NOOP
+                    reply(out, "250 OK");
+                }
+            }
+        }
+
+        private static void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws Exception {
+            socket.close();
+            thread.join(1_000);
+        }
+    }
+}
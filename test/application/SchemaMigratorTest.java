@@ -0,0 +1,148 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Applies every migration in order to a database laid out like the first release.
+ * Needs a scratch MySQL database, given as a JDBC url with its credentials in the
+ * restautomation.test.jdbcUrl system property; its tables are dropped and recreated.
+ * Skipped when the property is not set.
+ *
+ * @author Musab
+ */
+class SchemaMigratorTest {
+
+    private static final String URL = System.getProperty("restautomation.test.jdbcUrl");
+
+    private Connection conn;
+
+    @BeforeEach
+    void createBaselineSchema() throws SQLException {
+        Assumptions.assumeTrue(URL != null, "restautomation.test.jdbcUrl is not set");
+        conn = DriverManager.getConnection(URL);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DROP TABLE IF EXISTS order_items, orders, menu_items, cash_log, logs,"
+                    + " daily_sales_summary, menu_version, schema_version");
+            stmt.executeUpdate("""
+                CREATE TABLE menu_items (
+                    id INT AUTO_INCREMENT PRIMARY KEY,
+                    name VARCHAR(100) NOT NULL,
+                    category VARCHAR(100) NOT NULL,
+                    size VARCHAR(20),
+                    price DECIMAL(10, 2) NOT NULL
+                )
+            """);
+            stmt.executeUpdate("""
+                CREATE TABLE orders (
+                    id INT AUTO_INCREMENT PRIMARY KEY,
+                    timestamp DATETIME NOT NULL,
+                    taxed BOOLEAN NOT NULL
+                )
+            """);
+            stmt.executeUpdate("""
+                CREATE TABLE order_items (
+                    id INT AUTO_INCREMENT PRIMARY KEY,
+                    order_id INT NOT NULL,
+                    menu_item_id INT NOT NULL,
+                    quantity INT NOT NULL,
+                    FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE,
+                    FOREIGN KEY (menu_item_id) REFERENCES menu_items(id)
+                )
+            """);
+            stmt.executeUpdate("CREATE TABLE cash_log (id INT AUTO_INCREMENT PRIMARY KEY, date DATE, amount DECIMAL(10, 2))");
+            stmt.executeUpdate("CREATE TABLE logs (id INT AUTO_INCREMENT PRIMARY KEY, action VARCHAR(255), timestamp DATETIME)");
+
+            stmt.executeUpdate("INSERT INTO menu_items(id, name, category, price) VALUES"
+                    + " (1, 'Tea', 'Hot Drink', 15.00), (2, 'Pizza', 'Food', 250.00)");
+            stmt.executeUpdate("INSERT INTO orders(id, timestamp, taxed) VALUES"
+                    + " (1, '2025-04-11 09:30:00', FALSE), (2, '2025-04-11 13:00:00', TRUE), (3, '2025-04-12 12:00:00', FALSE)");
+            // Order 1 was saved the old way, one row per unit
+            stmt.executeUpdate("INSERT INTO order_items(order_id, menu_item_id, quantity) VALUES"
+                    + " (1, 1, 2), (1, 1, 2), (2, 2, 1), (3, 1, 3), (3, 2, 2)");
+        }
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        if (conn != null) {
+            conn.close();
+        }
+    }
+
+    @Test
+    void baselineDatabaseIsMigratedToTheLatestVersion() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator();
+
+        assertEquals(SchemaMigrator.Outcome.CURRENT, migrator.migrate(conn), migrator.getFailure());
+        assertNull(migrator.getFailure());
+        assertEquals(SchemaMigrator.latestVersion(), SchemaMigrator.getCurrentVersion(conn));
+
+        assertEquals(List.of("1 1 2 15.00", "2 2 1 250.00", "3 1 3 15.00", "3 2 2 250.00"),
+                rows("SELECT order_id, menu_item_id, quantity, unit_price FROM order_items ORDER BY order_id, menu_item_id"));
+        assertEquals(expectedSummary(), summary());
+        assertEquals(List.of("1"), rows("SELECT version FROM menu_version"));
+
+        // A second run finds nothing to do
+        assertEquals(SchemaMigrator.Outcome.CURRENT, migrator.migrate(conn), migrator.getFailure());
+        assertEquals(expectedSummary(), summary());
+    }
+
+    @Test
+    void summaryKeepsTheChargedPricesAfterAMenuPriceEdit() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator();
+        assertEquals(SchemaMigrator.Outcome.CURRENT, migrator.migrate(conn), migrator.getFailure());
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE menu_items SET price = 20.00 WHERE id = 1");
+        }
+        assertTrue(SalesSummaryDAO.rebuild(conn) > 0);
+
+        assertEquals(expectedSummary(), summary());
+    }
+
+    private static List<String> expectedSummary() {
+        return List.of(
+                "2025-04-11 Food true 250.00 1",
+                "2025-04-11 Hot Drink false 30.00 2",
+                "2025-04-12 Food false 500.00 2",
+                "2025-04-12 Hot Drink false 45.00 3");
+    }
+
+    private List<String> summary() throws SQLException {
+        return rows("SELECT business_day, category, taxed, amount, quantity FROM daily_sales_summary"
+                + " ORDER BY business_day, category, taxed");
+    }
+
+    private List<String> rows(String sql) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                StringBuilder row = new StringBuilder();
+                for (int i = 1; i <= columns; i++) {
+                    Object value = rs.getObject(i);
+                    row.append(i > 1 ? " " : "")
+                            .append(value instanceof BigDecimal decimal ? decimal.toPlainString() : String.valueOf(value));
+                }
+                rows.add(row.toString());
+            }
+        }
+        return rows;
+    }
+}